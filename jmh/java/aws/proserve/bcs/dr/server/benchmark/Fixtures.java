@@ -0,0 +1,60 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.benchmark;
+
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.project.Region;
+import com.amazonaws.regions.Regions;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthetic projects and items for the benchmarks.
+ */
+public final class Fixtures {
+
+    /**
+     * Serializes as the server does, see <code>spring.jackson</code> in <code>application.yaml</code>.
+     */
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public static final String SOURCE_REGION = "cn-north-1";
+    public static final String TARGET_REGION = "cn-northwest-1";
+
+    private Fixtures() {
+    }
+
+    public static Project project(Component type) {
+        final var project = new Project();
+        project.setName("benchmark");
+        project.setType(type);
+        project.setSourceRegion(new Region(Regions.fromName(SOURCE_REGION)));
+        project.setTargetRegion(new Region(Regions.fromName(TARGET_REGION)));
+        return project;
+    }
+
+    /**
+     * @return items replicating <code>source-i</code> to <code>target-i</code>.
+     */
+    public static <T> List<T> items(Class<T> type, int size) {
+        final var items = new ArrayList<T>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(MAPPER.convertValue(Map.of(
+                    "id", "item-" + i,
+                    "source", "source-" + i,
+                    "target", "target-" + i,
+                    "state", "REPLICATED"), type));
+        }
+        return items;
+    }
+}
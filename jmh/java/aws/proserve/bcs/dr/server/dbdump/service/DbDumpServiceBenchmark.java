@@ -0,0 +1,146 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.dbdump.service;
+
+import aws.proserve.bcs.dr.aws.AwsDbInstance;
+import aws.proserve.bcs.dr.dbdump.AwsDbDumpItem;
+import aws.proserve.bcs.dr.dbdump.DbDumpItem;
+import aws.proserve.bcs.dr.dbdump.DbDumpProject;
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.benchmark.Fixtures;
+import com.amazonaws.services.rds.AbstractAmazonRDS;
+import com.amazonaws.services.rds.model.DBInstance;
+import com.amazonaws.services.rds.model.DBSubnetGroup;
+import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
+import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
+import com.amazonaws.services.rds.model.Endpoint;
+import com.amazonaws.services.rds.model.Subnet;
+import com.amazonaws.services.rds.model.VpcSecurityGroupMembership;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes MySQL databases from synthetic <code>DescribeDBInstances</code> pages, joins them with the items of a
+ * project, and serializes the items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DbDumpServiceBenchmark {
+
+    /**
+     * Page size of <code>DescribeDBInstances</code>, at most 100.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int size;
+
+    private StubRds sourceRds;
+    private StubRds targetRds;
+    private Project project;
+    private AwsDbDumpItem[] items;
+
+    @Setup
+    public void setUp() {
+        sourceRds = new StubRds(instances("source-", size));
+        targetRds = new StubRds(instances("target-", size));
+
+        final var dump = new DbDumpProject();
+        dump.setItems(Fixtures.items(DbDumpItem.class, size));
+        project = Fixtures.project(Component.DbDumpMySql);
+        project.setDbDumpProject(dump);
+        items = join();
+    }
+
+    @Benchmark
+    public AwsDbInstance[] getAwsDbInstances() {
+        final var instances = new ArrayList<AwsDbInstance>();
+        DbDumpService.forEachAwsDbInstance(Component.DbDumpMySql, sourceRds, instances::add);
+        return instances.toArray(AwsDbInstance[]::new);
+    }
+
+    @Benchmark
+    public AwsDbDumpItem[] getAwsDbInstanceItems() {
+        return join();
+    }
+
+    @Benchmark
+    public byte[] serializeItems() throws JsonProcessingException {
+        return Fixtures.MAPPER.writeValueAsBytes(items);
+    }
+
+    private AwsDbDumpItem[] join() {
+        return DbDumpService.toItems(project, map(sourceRds), map(targetRds));
+    }
+
+    private static Map<String, AwsDbInstance> map(StubRds rds) {
+        final var map = new HashMap<String, AwsDbInstance>();
+        DbDumpService.forEachAwsDbInstance(Component.DbDumpMySql, rds, instance -> map.put(instance.getId(), instance));
+        return map;
+    }
+
+    private static List<DBInstance> instances(String prefix, int size) {
+        final var instances = new ArrayList<DBInstance>(size);
+        for (int i = 0; i < size; i++) {
+            instances.add(new DBInstance()
+                    .withDBInstanceIdentifier(prefix + i)
+                    .withDBName("db" + i)
+                    .withEngine(i % 2 == 0 ? "mysql" : "mariadb")
+                    .withEngineVersion("5.7.33")
+                    .withDBInstanceClass("db.r5.large")
+                    .withDBInstanceStatus("available")
+                    .withMasterUsername("admin")
+                    .withMultiAZ(i % 3 == 0)
+                    .withEndpoint(new Endpoint()
+                            .withAddress(prefix + i + ".abcdefghijkl.rds.cn-north-1.amazonaws.com.cn")
+                            .withPort(3306))
+                    .withDBSubnetGroup(new DBSubnetGroup().withSubnets(
+                            new Subnet().withSubnetIdentifier("subnet-a" + i),
+                            new Subnet().withSubnetIdentifier("subnet-b" + i)))
+                    .withVpcSecurityGroups(new VpcSecurityGroupMembership().withVpcSecurityGroupId("sg-" + i)));
+        }
+        return instances;
+    }
+
+    /**
+     * Answers <code>DescribeDBInstances</code> page by page, the marker being the index of the next page.
+     */
+    private static final class StubRds extends AbstractAmazonRDS {
+        private final List<DBInstance> instances;
+
+        private StubRds(List<DBInstance> instances) {
+            this.instances = instances;
+        }
+
+        @Override
+        public DescribeDBInstancesResult describeDBInstances(DescribeDBInstancesRequest request) {
+            final var from = request.getMarker() == null ? 0 : Integer.parseInt(request.getMarker());
+            final var to = Math.min(from + PAGE_SIZE, instances.size());
+            return new DescribeDBInstancesResult()
+                    .withDBInstances(instances.subList(from, to))
+                    .withMarker(to < instances.size() ? String.valueOf(to) : null);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.dbreplica.service;
+
+import aws.proserve.bcs.dr.aws.AwsInstance;
+import aws.proserve.bcs.dr.dbreplica.AwsDbReplicaEc2Item;
+import aws.proserve.bcs.dr.dbreplica.DbReplicaItem;
+import aws.proserve.bcs.dr.dbreplica.DbReplicaProject;
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.benchmark.Fixtures;
+import com.amazonaws.services.ec2.model.GroupIdentifier;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.InstanceState;
+import com.amazonaws.services.ec2.model.Placement;
+import com.amazonaws.services.ec2.model.Tag;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts synthetic EC2 instances, joins them with the items of a DB replica project, and serializes the items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DbReplicaServiceBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int size;
+
+    private Project project;
+    private List<Instance> sourceInstances;
+    private List<Instance> targetInstances;
+    private AwsDbReplicaEc2Item[] items;
+
+    @Setup
+    public void setUp() {
+        sourceInstances = instances("source-", size);
+        targetInstances = instances("target-", size);
+
+        final var replica = new DbReplicaProject();
+        replica.setItems(Fixtures.items(DbReplicaItem.class, size));
+        project = Fixtures.project(Component.DbReplicaOracleEc2);
+        project.setDbReplicaProject(replica);
+        items = getAwsDbReplicaEc2Items();
+    }
+
+    @Benchmark
+    public AwsDbReplicaEc2Item[] getAwsDbReplicaEc2Items() {
+        return DbReplicaService.toItems(project, map(sourceInstances), map(targetInstances));
+    }
+
+    @Benchmark
+    public byte[] serializeItems() throws JsonProcessingException {
+        return Fixtures.MAPPER.writeValueAsBytes(items);
+    }
+
+    private static Map<String, AwsInstance> map(List<Instance> instances) {
+        final var map = new HashMap<String, AwsInstance>();
+        for (var instance : instances) {
+            final var converted = AwsInstance.convert(instance);
+            map.put(converted.getId(), converted);
+        }
+        return map;
+    }
+
+    private static List<Instance> instances(String prefix, int size) {
+        final var instances = new ArrayList<Instance>(size);
+        for (int i = 0; i < size; i++) {
+            instances.add(new Instance()
+                    .withInstanceId(prefix + i)
+                    .withInstanceType("m5.large")
+                    .withImageId("ami-0123456789abcdef0")
+                    .withState(new InstanceState().withCode(16).withName("running"))
+                    .withPlacement(new Placement().withAvailabilityZone(Fixtures.SOURCE_REGION + "a"))
+                    .withPrivateIpAddress("10.0." + (i / 256 % 256) + "." + (i % 256))
+                    .withVpcId("vpc-" + i % 10)
+                    .withSubnetId("subnet-" + i % 100)
+                    .withSecurityGroups(new GroupIdentifier().withGroupId("sg-" + i).withGroupName("mysql"))
+                    .withTags(new Tag("Name", prefix + i)));
+        }
+        return instances;
+    }
+}
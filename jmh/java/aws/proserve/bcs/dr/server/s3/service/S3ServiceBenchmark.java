@@ -0,0 +1,62 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.s3.service;
+
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.s3.AwsBucketItem;
+import aws.proserve.bcs.dr.s3.S3Item;
+import aws.proserve.bcs.dr.s3.S3Project;
+import aws.proserve.bcs.dr.server.benchmark.Fixtures;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the items of an S3 project to their buckets, and serializes them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class S3ServiceBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    int size;
+
+    private Project project;
+    private AwsBucketItem[] items;
+
+    @Setup
+    public void setUp() {
+        final var s3Project = new S3Project();
+        s3Project.setItems(Fixtures.items(S3Item.class, size));
+        project = Fixtures.project(Component.S3);
+        project.setS3Project(s3Project);
+        items = S3Service.toItems(project);
+    }
+
+    @Benchmark
+    public AwsBucketItem[] getAwsBucketItems() {
+        return S3Service.toItems(project);
+    }
+
+    @Benchmark
+    public byte[] serializeItems() throws JsonProcessingException {
+        return Fixtures.MAPPER.writeValueAsBytes(items);
+    }
+}
@@ -0,0 +1,123 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps the latency of every request of each scenario, to report exact percentiles.
+ */
+final class LatencyRecorder {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Scenario, Samples> samples = new EnumMap<>(Scenario.class);
+
+    LatencyRecorder() {
+        for (var scenario : Scenario.values()) {
+            samples.put(scenario, new Samples());
+        }
+    }
+
+    void record(Scenario scenario, long nanos, boolean failed) {
+        samples.get(scenario).add(nanos, failed);
+    }
+
+    void print(PrintStream out, long seconds) {
+        out.printf("%-18s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (var row : rows(seconds)) {
+            out.printf(Locale.ROOT, "%-18s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    row.name, row.count, row.errors, row.throughput,
+                    row.percentiles[0], row.percentiles[1], row.percentiles[2], row.percentiles[3], row.max);
+        }
+    }
+
+    void writeCsv(Path file, long seconds) throws IOException {
+        final var lines = new ArrayList<String>();
+        lines.add("scenario,requests,errors,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+        for (var row : rows(seconds)) {
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    row.name, row.count, row.errors, row.throughput,
+                    row.percentiles[0], row.percentiles[1], row.percentiles[2], row.percentiles[3], row.max));
+        }
+        Files.write(file, lines);
+    }
+
+    /**
+     * @return a row per scenario that ran, and the total.
+     */
+    private ArrayList<Row> rows(long seconds) {
+        final var rows = new ArrayList<Row>();
+        final var total = new Samples();
+        samples.forEach((scenario, scenarioSamples) -> {
+            final var snapshot = scenarioSamples.snapshot();
+            if (snapshot.length > 0 || scenarioSamples.errors > 0) {
+                rows.add(new Row(scenario.name(), snapshot, scenarioSamples.errors, seconds));
+            }
+            for (var nanos : snapshot) {
+                total.add(nanos, false);
+            }
+            total.errors += scenarioSamples.errors;
+        });
+        rows.add(new Row("TOTAL", total.snapshot(), total.errors, seconds));
+        return rows;
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        private synchronized void add(long value, boolean failed) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (failed) {
+                errors++;
+            }
+        }
+
+        private synchronized long[] snapshot() {
+            final var sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static final class Row {
+        private final String name;
+        private final int count;
+        private final long errors;
+        private final double throughput;
+        private final double[] percentiles = new double[PERCENTILES.length];
+        private final double max;
+
+        private Row(String name, long[] sorted, long errors, long seconds) {
+            this.name = name;
+            this.count = sorted.length;
+            this.errors = errors;
+            this.throughput = seconds == 0 ? 0 : (double) sorted.length / seconds;
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles[i] = sorted.length == 0
+                        ? 0
+                        : millis(sorted[(int) Math.min(sorted.length - 1,
+                        Math.ceil(PERCENTILES[i] / 100 * sorted.length) - 1)]);
+            }
+            this.max = sorted.length == 0 ? 0 : millis(sorted[sorted.length - 1]);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.Application;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the server against stand-ins of AWS, creates projects through its REST API, and drives a mix of requests
+ * from concurrent users, reporting the throughput and latency percentiles of each scenario.
+ * <p>
+ * DynamoDB Local must be running at <code>loadtest.dynamodb.endpoint</code>, see {@link LoadTestOptions} for the
+ * other options.
+ */
+public final class LoadTest {
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var options = new LoadTestOptions();
+        createTables(options);
+
+        final var context = new SpringApplicationBuilder(Application.class, LoadTestConfig.class)
+                .properties("server.port=0")
+                .run(args);
+        try {
+            final var port = context.getEnvironment().getRequiredProperty("local.server.port");
+            final var client = new PortalClient(URI.create("http://localhost:" + port));
+            final var workload = new Workload();
+            workload.seed(client, options);
+
+            final var recorder = run(client, workload, options);
+            recorder.print(System.out, options.durationSeconds);
+            if (options.csv != null) {
+                recorder.writeCsv(Path.of(options.csv), options.durationSeconds);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static LatencyRecorder run(PortalClient client, Workload workload, LoadTestOptions options)
+            throws InterruptedException {
+        final var scenarios = new ArrayList<Scenario>();
+        options.mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                scenarios.add(scenario);
+            }
+        });
+
+        final var recorder = new LatencyRecorder();
+        final var measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        final var endAt = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        final var users = Executors.newFixedThreadPool(options.users);
+        log.info("Run {} users for {}s after a warmup of {}s",
+                options.users, options.durationSeconds, options.warmupSeconds);
+
+        for (int i = 0; i < options.users; i++) {
+            users.execute(() -> {
+                while (System.nanoTime() < endAt) {
+                    final var scenario = scenarios.get(ThreadLocalRandom.current().nextInt(scenarios.size()));
+                    final var startAt = System.nanoTime();
+                    var failed = true;
+                    try {
+                        failed = client.send(scenario.call(workload, options)) >= 400;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        log.debug("Request of {} failed", scenario, e);
+                    }
+
+                    if (startAt >= measureFrom) {
+                        recorder.record(scenario, System.nanoTime() - startAt, failed);
+                    }
+                }
+            });
+        }
+
+        users.shutdown();
+        users.awaitTermination(options.warmupSeconds + options.durationSeconds + 300, TimeUnit.SECONDS);
+        return recorder;
+    }
+
+    /**
+     * Creates the project table of the server in DynamoDB Local, unless it exists.
+     */
+    private static void createTables(LoadTestOptions options) throws InterruptedException {
+        final var dynamoDB = LoadTestConfig.localDynamoDBClient(options.dynamoDBEndpoint);
+        final var throughput = new ProvisionedThroughput(1_000L, 1_000L);
+        final var request = new DynamoDBMapper(dynamoDB).generateCreateTableRequest(Project.class)
+                .withProvisionedThroughput(throughput);
+        if (request.getGlobalSecondaryIndexes() != null) {
+            request.getGlobalSecondaryIndexes().forEach(index -> index.setProvisionedThroughput(throughput));
+        }
+
+        TableUtils.createTableIfNotExists(dynamoDB, request);
+        TableUtils.waitUntilActive(dynamoDB, request.getTableName());
+        dynamoDB.shutdown();
+    }
+}
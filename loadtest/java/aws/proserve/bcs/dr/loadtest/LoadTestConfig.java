@@ -0,0 +1,73 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import aws.proserve.bcs.dr.loadtest.fake.FakeAws;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.lambda.AWSLambda;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Points the server at DynamoDB Local for its own tables, and at in-process fakes for the services it manages.
+ * Clients of the registry are created by {@link FakeAws}, as the bean of <code>AwsClientFactory</code>.
+ */
+@Configuration
+class LoadTestConfig {
+
+    @Bean
+    FakeAws fakeAws(
+            @Value("${loadtest.aws.latencyMillis:20}") long latencyMillis,
+            @Value("${loadtest.aws.pageSize:100}") int pageSize,
+            @Value("${loadtest.aws.resources:1000}") int resources,
+            @Value("${loadtest.aws.executionMillis:30000}") long executionMillis) {
+        return new FakeAws(latencyMillis, pageSize, resources, executionMillis);
+    }
+
+    @Bean
+    @Primary
+    AmazonDynamoDB localDynamoDB(@Value("${loadtest.dynamodb.endpoint:http://localhost:8000}") String endpoint) {
+        return localDynamoDBClient(endpoint);
+    }
+
+    @Bean
+    @Primary
+    AmazonS3 fakeS3(FakeAws aws) {
+        return aws.s3();
+    }
+
+    @Bean
+    @Primary
+    AWSStepFunctions fakeStepFunctions(FakeAws aws) {
+        return aws.stepFunctions();
+    }
+
+    @Bean
+    @Primary
+    AWSLambda fakeLambda(FakeAws aws) {
+        return aws.lambda();
+    }
+
+    @Bean
+    @Primary
+    AWSSecretsManager fakeSecretsManager(FakeAws aws) {
+        return aws.secretsManager();
+    }
+
+    static AmazonDynamoDB localDynamoDBClient(String endpoint) {
+        return AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new EndpointConfiguration(endpoint, "cn-north-1"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("local", "local")))
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Options of a load test, read from <code>loadtest.*</code> system properties.
+ */
+final class LoadTestOptions {
+    /**
+     * Concurrent virtual users, each sending a request as soon as the previous one is answered.
+     */
+    final int users = Integer.getInteger("loadtest.users", 50);
+    final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+    final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 60);
+
+    /**
+     * Projects created of each type.
+     */
+    final int projects = Integer.getInteger("loadtest.projects", 5);
+    final int itemsPerProject = Integer.getInteger("loadtest.itemsPerProject", 20);
+
+    /**
+     * Endpoint of DynamoDB Local, holding the tables of the portal.
+     */
+    final String dynamoDBEndpoint = System.getProperty("loadtest.dynamodb.endpoint", "http://localhost:8000");
+
+    /**
+     * Latency of every call to a fake AWS service.
+     */
+    final long awsLatencyMillis = Long.getLong("loadtest.aws.latencyMillis", 20);
+    final int awsPageSize = Integer.getInteger("loadtest.aws.pageSize", 100);
+
+    /**
+     * Instances, databases, tables and buckets in each region.
+     */
+    final int awsResources = Integer.getInteger("loadtest.aws.resources", 1_000);
+    final long awsExecutionMillis = Long.getLong("loadtest.aws.executionMillis", 30_000);
+
+    /**
+     * Weights of the scenarios, such as <code>GET_PROJECT=10,ADD_ITEMS=0</code>, overriding their defaults.
+     */
+    final Map<Scenario, Integer> mix = mix(System.getProperty("loadtest.mix", ""));
+
+    /**
+     * File to write the report to as CSV, if any.
+     */
+    final String csv = System.getProperty("loadtest.csv");
+
+    private static Map<Scenario, Integer> mix(String text) {
+        final var mix = new EnumMap<Scenario, Integer>(Scenario.class);
+        for (var scenario : Scenario.values()) {
+            mix.put(scenario, scenario.weight);
+        }
+        for (var entry : text.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+
+            final var pair = entry.split("=", 2);
+            mix.put(Scenario.valueOf(pair[0].trim()), Integer.parseInt(pair[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Sends requests to the REST API of the server under test.
+ */
+final class PortalClient {
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final URI base;
+
+    PortalClient(URI base) {
+        this.base = base;
+    }
+
+    /**
+     * @return the status of the response, whose body is read and discarded.
+     */
+    int send(Call call) throws IOException, InterruptedException {
+        return http.send(request(call), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * @return the body of a successful response.
+     */
+    JsonNode exchange(Call call) throws IOException, InterruptedException {
+        final var response = http.send(request(call), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IOException(call + " answered " + response.statusCode() + ": " + new String(response.body()));
+        }
+        return response.body().length == 0 ? mapper.nullNode() : mapper.readTree(response.body());
+    }
+
+    private HttpRequest request(Call call) {
+        final HttpRequest.BodyPublisher body;
+        try {
+            body = call.body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(call.body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return HttpRequest.newBuilder(base.resolve(call.path))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "application/json")
+                .method(call.method, body)
+                .build();
+    }
+
+    static final class Call {
+        final String method;
+        final String path;
+        final Object body;
+
+        private Call(String method, String path, Object body) {
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        static Call get(String path) {
+            return new Call("GET", path, null);
+        }
+
+        static Call post(String path, Object body) {
+            return new Call("POST", path, body);
+        }
+
+        static Call put(String path, Object body) {
+            return new Call("PUT", path, body);
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + path;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import aws.proserve.bcs.dr.loadtest.PortalClient.Call;
+import aws.proserve.bcs.dr.loadtest.Workload.Kind;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+
+/**
+ * Requests of the console, weighted by how often a user sends them.
+ */
+enum Scenario {
+    LIST_PROJECTS(15, (workload, options) -> Call.get("/projects/summaries?limit=20&type="
+            + new String[]{"DynamoDB", "S3", "DbDumpMySql", "DbReplicaOracleEc2"}[random(4)])),
+    LIST_ALL_PROJECTS(5, (workload, options) -> Call.get(Kind.values()[random(Kind.values().length)].path)),
+    GET_PROJECT(20, (workload, options) -> Call.get("/projects/" + workload.projectId(randomKind()))),
+    TABLE_ITEMS(10, (workload, options) ->
+            Call.get("/dynamo/projects/" + workload.projectId(Kind.DYNAMO) + "/awsTableItems")),
+    DB_DUMP_ITEMS(5, (workload, options) ->
+            Call.get("/dbdump/projects/" + workload.projectId(Kind.DB_DUMP) + "/awsDbDumpItems")),
+    BROWSE_TABLES(10, (workload, options) ->
+            Call.get("/dynamo/projects/" + workload.projectId(Kind.DYNAMO) + "/awsTables/source")),
+    BROWSE_DATABASES(10, (workload, options) ->
+            Call.get("/dbdump/projects/" + workload.projectId(Kind.DB_DUMP) + "/awsDbInstances/source/DbDumpMySql")),
+    BROWSE_INSTANCES(5, (workload, options) ->
+            Call.get("/dbreplica/projects/" + workload.projectId(Kind.DB_REPLICA) + "/awsInstances/source")),
+    BROWSE_BUCKETS(10, (workload, options) ->
+            Call.get("/s3/projects/" + workload.projectId(Kind.S3) + "/awsBuckets")),
+    ADD_ITEMS(4, (workload, options) ->
+            workload.addItem(Kind.S3, workload.projectId(Kind.S3), random(options.awsResources))),
+    START_ITEM(3, (workload, options) -> manageItem(workload, "start")),
+    STOP_ITEM(3, (workload, options) -> manageItem(workload, "stop"));
+
+    final int weight;
+    private final BiFunction<Workload, LoadTestOptions, Call> call;
+
+    Scenario(int weight, BiFunction<Workload, LoadTestOptions, Call> call) {
+        this.weight = weight;
+        this.call = call;
+    }
+
+    Call call(Workload workload, LoadTestOptions options) {
+        return call.apply(workload, options);
+    }
+
+    private static Call manageItem(Workload workload, String action) {
+        final var projectId = workload.projectId(Kind.DYNAMO);
+        final var item = workload.item(projectId);
+        return Call.put("/dynamo/projects/" + projectId + "/items/" + action,
+                Map.of("item", item == null ? Map.of() : item));
+    }
+
+    private static Kind randomKind() {
+        return Kind.values()[random(Kind.values().length)];
+    }
+
+    private static int random(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest;
+
+import aws.proserve.bcs.dr.loadtest.PortalClient.Call;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Projects created for the test through the REST API, with the items of each.
+ */
+final class Workload {
+    static final String SOURCE_REGION = "cn-north-1";
+    static final String TARGET_REGION = "cn-northwest-1";
+    private static final String PREFIX = "loadtest-";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Map<Kind, List<String>> projectIds = new EnumMap<>(Kind.class);
+    private final Map<String, List<Map<String, Object>>> items = new ConcurrentHashMap<>();
+    private final AtomicInteger nextItem = new AtomicInteger();
+
+    /**
+     * The kinds of project exercised, each with the path creating and listing them.
+     */
+    enum Kind {
+        DYNAMO("/projects/dynamo", "table-"),
+        S3("/projects/s3", "bucket-"),
+        DB_DUMP("/projects/dbdump/DbDumpMySql", "db-"),
+        DB_REPLICA("/projects/dbreplica/DbReplicaOracleEc2", "instance-");
+
+        final String path;
+        final String resource;
+
+        Kind(String path, String resource) {
+            this.path = path;
+            this.resource = resource;
+        }
+    }
+
+    void seed(PortalClient client, LoadTestOptions options) throws IOException, InterruptedException {
+        for (var kind : Kind.values()) {
+            for (int i = 0; i < options.projects; i++) {
+                client.exchange(Call.post(kind.path, Map.of(
+                        "name", PREFIX + kind.name().toLowerCase() + "-" + i,
+                        "sourceRegion", SOURCE_REGION,
+                        "targetRegion", TARGET_REGION,
+                        "sourceCredential", Map.of("accessKeyId", "local", "secretAccessKey", "local"))));
+            }
+
+            final var ids = new ArrayList<String>();
+            for (var project : client.exchange(Call.get(kind.path))) {
+                if (project.path("name").asText().startsWith(PREFIX)) {
+                    ids.add(project.path("id").asText());
+                }
+            }
+            projectIds.put(kind, ids);
+
+            for (var id : ids) {
+                for (int i = 0; i < options.itemsPerProject; i++) {
+                    client.exchange(addItem(kind, id, i * 2 % options.awsResources));
+                }
+            }
+            log.info("Seeded {} {} projects of {} items", ids.size(), kind, options.itemsPerProject);
+        }
+    }
+
+    String projectId(Kind kind) {
+        final var ids = projectIds.get(kind);
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    /**
+     * @return an item of the project, or <code>null</code> if it has none.
+     */
+    Map<String, Object> item(String projectId) {
+        final var projectItems = items.get(projectId);
+        return projectItems == null || projectItems.isEmpty()
+                ? null
+                : projectItems.get(ThreadLocalRandom.current().nextInt(projectItems.size()));
+    }
+
+    /**
+     * Adds an item replicating the resource of that index, with a name of its own.
+     */
+    Call addItem(Kind kind, String projectId, int resource) {
+        final var id = PREFIX + nextItem.incrementAndGet();
+        final var item = Map.<String, Object>of(
+                "id", id,
+                "source", kind.resource + resource,
+                "target", kind.resource + resource);
+        items.computeIfAbsent(projectId, p -> Collections.synchronizedList(new ArrayList<>())).add(item);
+
+        final var path = kind.path.replaceFirst("^/projects/(\\w+).*$", "/$1/projects/") + projectId + "/items";
+        return kind == Kind.DB_DUMP
+                ? Call.put(path, Map.of("item", item, "sourcePassword", "local", "targetPassword", "local"))
+                : Call.put(path, Map.of("item", item));
+    }
+}
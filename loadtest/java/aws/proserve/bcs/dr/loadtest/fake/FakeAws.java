@@ -0,0 +1,129 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import aws.proserve.bcs.dr.server.aws.client.AwsClientFactory;
+import com.amazonaws.services.identitymanagement.AbstractAmazonIdentityManagement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-ins of the AWS services called by the portal, each call taking <code>latencyMillis</code> and
+ * listing resources <code>pageSize</code> at a time.
+ * <p>
+ * Every region holds <code>resources</code> instances, databases and tables, named <code>{kind}-{i}</code>.
+ */
+public class FakeAws implements AwsClientFactory {
+    private final long latencyMillis;
+    private final int pageSize;
+    private final int resources;
+    private final Map<String, Object> clients = new ConcurrentHashMap<>();
+
+    private final FakeS3 s3;
+    private final FakeStepFunctions stepFunctions;
+    private final FakeLambda lambda;
+    private final FakeSecretsManager secretsManager;
+
+    public FakeAws(long latencyMillis, int pageSize, int resources, long executionMillis) {
+        this.latencyMillis = latencyMillis;
+        this.pageSize = pageSize;
+        this.resources = resources;
+        this.s3 = new FakeS3(this);
+        this.stepFunctions = new FakeStepFunctions(this, executionMillis);
+        this.lambda = new FakeLambda(this);
+        this.secretsManager = new FakeSecretsManager(this);
+    }
+
+    @Override
+    public Object create(String service, String region) {
+        return clients.computeIfAbsent(service + "/" + region, key -> {
+            switch (service) {
+                case "ec2":
+                    return new FakeEc2(this, region);
+                case "rds":
+                    return new FakeRds(this, region);
+                case "dynamodb":
+                    return new FakeDynamoDB(this);
+                case "secretsmanager":
+                    return secretsManager;
+                case "iam":
+                    return new AbstractAmazonIdentityManagement() {
+                    };
+                default:
+                    throw new IllegalArgumentException("No fake of " + service);
+            }
+        });
+    }
+
+    public FakeS3 s3() {
+        return s3;
+    }
+
+    public FakeStepFunctions stepFunctions() {
+        return stepFunctions;
+    }
+
+    public FakeLambda lambda() {
+        return lambda;
+    }
+
+    public FakeSecretsManager secretsManager() {
+        return secretsManager;
+    }
+
+    int pageSize() {
+        return pageSize;
+    }
+
+    int resources() {
+        return resources;
+    }
+
+    /**
+     * Takes the time of a call to AWS.
+     */
+    void call() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the index of the resource of the ID, or <code>-1</code> if there is no such resource.
+     */
+    int index(String prefix, String id) {
+        if (!id.startsWith(prefix)) {
+            return -1;
+        }
+
+        try {
+            final var i = Integer.parseInt(id.substring(prefix.length()));
+            return i < resources ? i : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the index of the page starting at the token, which is the index of its first resource.
+     */
+    static int start(String token) {
+        return token == null || token.isEmpty() ? 0 : Integer.parseInt(token);
+    }
+
+    /**
+     * @return the token of the page after the one ending at <code>end</code>, or <code>null</code> after the last.
+     */
+    String next(int end) {
+        return end < resources ? String.valueOf(end) : null;
+    }
+}
@@ -0,0 +1,63 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.ListTablesRequest;
+import com.amazonaws.services.dynamodbv2.model.ListTablesResult;
+import com.amazonaws.services.dynamodbv2.model.ResourceNotFoundException;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.TableStatus;
+
+import java.util.ArrayList;
+
+/**
+ * Tables <code>table-{i}</code> of the replicated accounts, not the tables of the portal itself.
+ */
+class FakeDynamoDB extends AbstractAmazonDynamoDB {
+    private final FakeAws aws;
+
+    FakeDynamoDB(FakeAws aws) {
+        this.aws = aws;
+    }
+
+    @Override
+    public ListTablesResult listTables(ListTablesRequest request) {
+        aws.call();
+        final var last = request.getExclusiveStartTableName();
+        final var start = last == null ? 0 : index(last) + 1;
+        final var end = Math.min(start + aws.pageSize(), aws.resources());
+        final var names = new ArrayList<String>();
+        for (int i = start; i < end; i++) {
+            names.add("table-" + i);
+        }
+        return new ListTablesResult()
+                .withTableNames(names)
+                .withLastEvaluatedTableName(end < aws.resources() ? "table-" + (end - 1) : null);
+    }
+
+    @Override
+    public DescribeTableResult describeTable(DescribeTableRequest request) {
+        aws.call();
+        final var name = request.getTableName();
+        final var i = index(name);
+        if (i < 0 || i >= aws.resources()) {
+            throw new ResourceNotFoundException("Requested resource not found: Table: " + name + " not found");
+        }
+        return new DescribeTableResult().withTable(new TableDescription()
+                .withTableName(name)
+                .withTableStatus(TableStatus.ACTIVE)
+                .withItemCount(1_000L));
+    }
+
+    private static int index(String name) {
+        try {
+            return name.startsWith("table-") ? Integer.parseInt(name.substring("table-".length())) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
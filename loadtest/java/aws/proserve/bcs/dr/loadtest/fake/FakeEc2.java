@@ -0,0 +1,146 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.ec2.AbstractAmazonEC2;
+import com.amazonaws.services.ec2.model.DescribeInstanceTypesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstanceTypesResult;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
+import com.amazonaws.services.ec2.model.DescribeSecurityGroupsResult;
+import com.amazonaws.services.ec2.model.DescribeVpcsRequest;
+import com.amazonaws.services.ec2.model.DescribeVpcsResult;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.GroupIdentifier;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.InstanceState;
+import com.amazonaws.services.ec2.model.InstanceTypeInfo;
+import com.amazonaws.services.ec2.model.Placement;
+import com.amazonaws.services.ec2.model.Reservation;
+import com.amazonaws.services.ec2.model.SecurityGroup;
+import com.amazonaws.services.ec2.model.Tag;
+import com.amazonaws.services.ec2.model.Vpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instances <code>instance-{i}</code>, spread over ten VPCs <code>vpc-{i}</code>.
+ */
+class FakeEc2 extends AbstractAmazonEC2 {
+    private static final int VPCS = 10;
+
+    private final FakeAws aws;
+    private final String region;
+
+    FakeEc2(FakeAws aws, String region) {
+        this.aws = aws;
+        this.region = region;
+    }
+
+    @Override
+    public DescribeInstancesResult describeInstances(DescribeInstancesRequest request) {
+        aws.call();
+        final var ids = new ArrayList<>(request.getInstanceIds());
+        request.getFilters().stream()
+                .filter(f -> f.getName().equals("instance-id"))
+                .forEach(f -> ids.addAll(f.getValues()));
+        if (!ids.isEmpty()) {
+            final var reservation = new Reservation();
+            for (var id : ids) {
+                final var i = aws.index("instance-", id);
+                if (i >= 0) {
+                    reservation.withInstances(instance(i));
+                }
+            }
+            return new DescribeInstancesResult().withReservations(reservation);
+        }
+
+        final var start = FakeAws.start(request.getNextToken());
+        final var end = Math.min(start + aws.pageSize(), aws.resources());
+        final var reservation = new Reservation();
+        for (int i = start; i < end; i++) {
+            final var instance = instance(i);
+            if (request.getFilters().stream().allMatch(f -> matches(instance, f))) {
+                reservation.withInstances(instance);
+            }
+        }
+        return new DescribeInstancesResult()
+                .withReservations(reservation)
+                .withNextToken(aws.next(end));
+    }
+
+    /**
+     * Supports the filters by state, VPC and tag, with <code>*</code> at the end of a value as a wildcard.
+     */
+    private static boolean matches(Instance instance, Filter filter) {
+        final String value;
+        if (filter.getName().equals("instance-state-name")) {
+            value = instance.getState().getName();
+        } else if (filter.getName().equals("vpc-id")) {
+            value = instance.getVpcId();
+        } else if (filter.getName().equals("tag-key")) {
+            return instance.getTags().stream().anyMatch(t -> filter.getValues().contains(t.getKey()));
+        } else if (filter.getName().startsWith("tag:")) {
+            final var key = filter.getName().substring("tag:".length());
+            value = instance.getTags().stream()
+                    .filter(t -> t.getKey().equals(key))
+                    .map(Tag::getValue)
+                    .findFirst()
+                    .orElse(null);
+        } else {
+            return true;
+        }
+
+        return value != null && filter.getValues().stream().anyMatch(v -> v.endsWith("*")
+                ? value.startsWith(v.substring(0, v.length() - 1))
+                : value.equals(v));
+    }
+
+    private Instance instance(int i) {
+        return new Instance()
+                .withInstanceId("instance-" + i)
+                .withInstanceType("m5.large")
+                .withImageId("ami-0123456789abcdef0")
+                .withState(new InstanceState().withCode(16).withName("running"))
+                .withPlacement(new Placement().withAvailabilityZone(region + "a"))
+                .withPrivateIpAddress("10.0." + (i / 256 % 256) + "." + (i % 256))
+                .withVpcId("vpc-" + i % VPCS)
+                .withSubnetId("subnet-" + i % VPCS)
+                .withSecurityGroups(new GroupIdentifier().withGroupId("sg-" + i % VPCS))
+                .withTags(new Tag("Name", "instance-" + i));
+    }
+
+    @Override
+    public DescribeVpcsResult describeVpcs(DescribeVpcsRequest request) {
+        aws.call();
+        final var vpcs = new ArrayList<Vpc>();
+        for (int i = 0; i < VPCS; i++) {
+            final var id = "vpc-" + i;
+            if (request.getVpcIds().isEmpty() || request.getVpcIds().contains(id)) {
+                vpcs.add(new Vpc().withVpcId(id).withCidrBlock("10." + i + ".0.0/16").withTags(new Tag("Name", id)));
+            }
+        }
+        return new DescribeVpcsResult().withVpcs(vpcs);
+    }
+
+    @Override
+    public DescribeSecurityGroupsResult describeSecurityGroups(DescribeSecurityGroupsRequest request) {
+        aws.call();
+        final var groups = new ArrayList<SecurityGroup>();
+        for (int i = 0; i < VPCS; i++) {
+            groups.add(new SecurityGroup().withGroupId("sg-" + i).withGroupName("sg-" + i).withVpcId("vpc-" + i));
+        }
+        return new DescribeSecurityGroupsResult().withSecurityGroups(groups);
+    }
+
+    @Override
+    public DescribeInstanceTypesResult describeInstanceTypes(DescribeInstanceTypesRequest request) {
+        aws.call();
+        return new DescribeInstanceTypesResult().withInstanceTypes(List.of(
+                new InstanceTypeInfo().withInstanceType("m5.large"),
+                new InstanceTypeInfo().withInstanceType("r5.large")));
+    }
+}
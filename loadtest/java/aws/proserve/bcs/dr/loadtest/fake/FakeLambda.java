@@ -0,0 +1,30 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.lambda.AbstractAWSLambda;
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.InvokeResult;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Functions answering every invocation with an empty JSON object.
+ */
+public class FakeLambda extends AbstractAWSLambda {
+    private final FakeAws aws;
+
+    FakeLambda(FakeAws aws) {
+        this.aws = aws;
+    }
+
+    @Override
+    public InvokeResult invoke(InvokeRequest request) {
+        aws.call();
+        return new InvokeResult()
+                .withStatusCode(200)
+                .withPayload(ByteBuffer.wrap("{}".getBytes(StandardCharsets.UTF_8)));
+    }
+}
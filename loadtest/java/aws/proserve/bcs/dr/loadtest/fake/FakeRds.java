@@ -0,0 +1,98 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.rds.AbstractAmazonRDS;
+import com.amazonaws.services.rds.model.DBInstance;
+import com.amazonaws.services.rds.model.DBInstanceNotFoundException;
+import com.amazonaws.services.rds.model.DBSubnetGroup;
+import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
+import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
+import com.amazonaws.services.rds.model.Endpoint;
+import com.amazonaws.services.rds.model.Filter;
+import com.amazonaws.services.rds.model.Subnet;
+import com.amazonaws.services.rds.model.VpcSecurityGroupMembership;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Databases <code>db-{i}</code>, alternately MySQL and Oracle.
+ */
+class FakeRds extends AbstractAmazonRDS {
+    private final FakeAws aws;
+    private final String region;
+
+    FakeRds(FakeAws aws, String region) {
+        this.aws = aws;
+        this.region = region;
+    }
+
+    @Override
+    public DescribeDBInstancesResult describeDBInstances(DescribeDBInstancesRequest request) {
+        aws.call();
+        final var id = request.getDBInstanceIdentifier();
+        if (id != null) {
+            final var i = aws.index("db-", id);
+            if (i < 0) {
+                throw new DBInstanceNotFoundException("DBInstance " + id + " not found.");
+            }
+            return new DescribeDBInstancesResult().withDBInstances(instance(i));
+        }
+
+        final var ids = filter(request, "db-instance-id");
+        final var engines = filter(request, "engine");
+        if (ids != null) {
+            final var instances = new ArrayList<DBInstance>();
+            for (var value : ids) {
+                final var i = aws.index("db-", value);
+                if (i >= 0 && (engines == null || engines.contains(instance(i).getEngine()))) {
+                    instances.add(instance(i));
+                }
+            }
+            return new DescribeDBInstancesResult().withDBInstances(instances);
+        }
+
+        final var start = FakeAws.start(request.getMarker());
+        final var end = Math.min(start + aws.pageSize(), aws.resources());
+        final var instances = new ArrayList<DBInstance>();
+        for (int i = start; i < end; i++) {
+            final var instance = instance(i);
+            if (engines == null || engines.contains(instance.getEngine())) {
+                instances.add(instance);
+            }
+        }
+        return new DescribeDBInstancesResult()
+                .withDBInstances(instances)
+                .withMarker(aws.next(end));
+    }
+
+    /**
+     * @return the values of the filter, or <code>null</code> if the request has no such filter.
+     */
+    private static List<String> filter(DescribeDBInstancesRequest request, String name) {
+        return request.getFilters().stream()
+                .filter(f -> f.getName().equals(name))
+                .findFirst()
+                .map(Filter::getValues)
+                .orElse(null);
+    }
+
+    private DBInstance instance(int i) {
+        return new DBInstance()
+                .withDBInstanceIdentifier("db-" + i)
+                .withDBName("db" + i)
+                .withEngine(i % 2 == 0 ? "mysql" : "oracle-ee")
+                .withEngineVersion(i % 2 == 0 ? "5.7.33" : "19.0.0.0")
+                .withDBInstanceClass("db.r5.large")
+                .withDBInstanceStatus("available")
+                .withMasterUsername("admin")
+                .withMultiAZ(false)
+                .withEndpoint(new Endpoint()
+                        .withAddress("db-" + i + "." + region + ".rds.local")
+                        .withPort(i % 2 == 0 ? 3306 : 1521))
+                .withDBSubnetGroup(new DBSubnetGroup().withSubnets(new Subnet().withSubnetIdentifier("subnet-0")))
+                .withVpcSecurityGroups(new VpcSecurityGroupMembership().withVpcSecurityGroupId("sg-0"));
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.GetBucketLocationRequest;
+import com.amazonaws.services.s3.model.ListBucketsRequest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Buckets <code>bucket-{i}</code>, alternately in either of two regions.
+ */
+public class FakeS3 extends AbstractAmazonS3 {
+    private static final String[] REGIONS = {"cn-north-1", "cn-northwest-1"};
+
+    private final FakeAws aws;
+
+    FakeS3(FakeAws aws) {
+        this.aws = aws;
+    }
+
+    @Override
+    public List<Bucket> listBuckets() {
+        return listBuckets(new ListBucketsRequest());
+    }
+
+    @Override
+    public List<Bucket> listBuckets(ListBucketsRequest request) {
+        aws.call();
+        final var buckets = new ArrayList<Bucket>();
+        for (int i = 0; i < aws.resources(); i++) {
+            final var bucket = new Bucket("bucket-" + i);
+            bucket.setCreationDate(new Date(0));
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    @Override
+    public String getBucketLocation(String bucketName) {
+        return getBucketLocation(new GetBucketLocationRequest(bucketName));
+    }
+
+    @Override
+    public String getBucketLocation(GetBucketLocationRequest request) {
+        aws.call();
+        final var name = request.getBucketName();
+        return REGIONS[Math.floorMod(name.hashCode(), REGIONS.length)];
+    }
+}
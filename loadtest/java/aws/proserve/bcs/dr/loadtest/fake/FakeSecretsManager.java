@@ -0,0 +1,88 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.secretsmanager.AbstractAWSSecretsManager;
+import com.amazonaws.services.secretsmanager.model.CreateSecretRequest;
+import com.amazonaws.services.secretsmanager.model.CreateSecretResult;
+import com.amazonaws.services.secretsmanager.model.DeleteSecretRequest;
+import com.amazonaws.services.secretsmanager.model.DeleteSecretResult;
+import com.amazonaws.services.secretsmanager.model.DescribeSecretRequest;
+import com.amazonaws.services.secretsmanager.model.DescribeSecretResult;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueRequest;
+import com.amazonaws.services.secretsmanager.model.PutSecretValueResult;
+import com.amazonaws.services.secretsmanager.model.ResourceNotFoundException;
+import com.amazonaws.services.secretsmanager.model.UpdateSecretRequest;
+import com.amazonaws.services.secretsmanager.model.UpdateSecretResult;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Secrets kept in memory, shared by all regions.
+ */
+public class FakeSecretsManager extends AbstractAWSSecretsManager {
+    private final FakeAws aws;
+    private final Map<String, String> secrets = new ConcurrentHashMap<>();
+
+    FakeSecretsManager(FakeAws aws) {
+        this.aws = aws;
+    }
+
+    @Override
+    public CreateSecretResult createSecret(CreateSecretRequest request) {
+        aws.call();
+        secrets.put(request.getName(), request.getSecretString());
+        return new CreateSecretResult().withName(request.getName()).withARN(arn(request.getName()));
+    }
+
+    @Override
+    public PutSecretValueResult putSecretValue(PutSecretValueRequest request) {
+        aws.call();
+        secrets.put(request.getSecretId(), request.getSecretString());
+        return new PutSecretValueResult().withName(request.getSecretId()).withARN(arn(request.getSecretId()));
+    }
+
+    @Override
+    public UpdateSecretResult updateSecret(UpdateSecretRequest request) {
+        aws.call();
+        secrets.put(request.getSecretId(), request.getSecretString());
+        return new UpdateSecretResult().withName(request.getSecretId()).withARN(arn(request.getSecretId()));
+    }
+
+    @Override
+    public GetSecretValueResult getSecretValue(GetSecretValueRequest request) {
+        aws.call();
+        final var value = secrets.get(request.getSecretId());
+        if (value == null) {
+            throw new ResourceNotFoundException("Secrets Manager can't find the specified secret.");
+        }
+        return new GetSecretValueResult()
+                .withName(request.getSecretId())
+                .withARN(arn(request.getSecretId()))
+                .withSecretString(value);
+    }
+
+    @Override
+    public DescribeSecretResult describeSecret(DescribeSecretRequest request) {
+        aws.call();
+        if (!secrets.containsKey(request.getSecretId())) {
+            throw new ResourceNotFoundException("Secrets Manager can't find the specified secret.");
+        }
+        return new DescribeSecretResult().withName(request.getSecretId()).withARN(arn(request.getSecretId()));
+    }
+
+    @Override
+    public DeleteSecretResult deleteSecret(DeleteSecretRequest request) {
+        aws.call();
+        secrets.remove(request.getSecretId());
+        return new DeleteSecretResult().withName(request.getSecretId()).withARN(arn(request.getSecretId()));
+    }
+
+    private static String arn(String name) {
+        return "arn:aws-cn:secretsmanager:cn-north-1:000000000000:secret:" + name;
+    }
+}
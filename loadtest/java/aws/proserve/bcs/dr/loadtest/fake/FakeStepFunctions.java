@@ -0,0 +1,91 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.loadtest.fake;
+
+import com.amazonaws.services.stepfunctions.AbstractAWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.DescribeExecutionRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeExecutionResult;
+import com.amazonaws.services.stepfunctions.model.ExecutionDoesNotExistException;
+import com.amazonaws.services.stepfunctions.model.ExecutionStatus;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesRequest;
+import com.amazonaws.services.stepfunctions.model.ListStateMachinesResult;
+import com.amazonaws.services.stepfunctions.model.StartExecutionRequest;
+import com.amazonaws.services.stepfunctions.model.StartExecutionResult;
+import com.amazonaws.services.stepfunctions.model.StopExecutionRequest;
+import com.amazonaws.services.stepfunctions.model.StopExecutionResult;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executions succeeding <code>executionMillis</code> after they start, unless stopped.
+ */
+public class FakeStepFunctions extends AbstractAWSStepFunctions {
+    private final FakeAws aws;
+    private final long executionMillis;
+    private final Map<String, Execution> executions = new ConcurrentHashMap<>();
+
+    FakeStepFunctions(FakeAws aws, long executionMillis) {
+        this.aws = aws;
+        this.executionMillis = executionMillis;
+    }
+
+    @Override
+    public ListStateMachinesResult listStateMachines(ListStateMachinesRequest request) {
+        aws.call();
+        return new ListStateMachinesResult();
+    }
+
+    @Override
+    public StartExecutionResult startExecution(StartExecutionRequest request) {
+        aws.call();
+        final var arn = request.getStateMachineArn() + ":" + UUID.randomUUID();
+        final var execution = new Execution(request.getInput(), System.currentTimeMillis());
+        executions.put(arn, execution);
+        return new StartExecutionResult()
+                .withExecutionArn(arn)
+                .withStartDate(new Date(execution.startTime));
+    }
+
+    @Override
+    public DescribeExecutionResult describeExecution(DescribeExecutionRequest request) {
+        aws.call();
+        final var execution = executions.get(request.getExecutionArn());
+        if (execution == null) {
+            throw new ExecutionDoesNotExistException("Execution does not exist: " + request.getExecutionArn());
+        }
+
+        final var done = System.currentTimeMillis() - execution.startTime >= executionMillis;
+        return new DescribeExecutionResult()
+                .withExecutionArn(request.getExecutionArn())
+                .withInput(execution.input)
+                .withStartDate(new Date(execution.startTime))
+                .withStatus(execution.stopped ? ExecutionStatus.ABORTED
+                        : done ? ExecutionStatus.SUCCEEDED : ExecutionStatus.RUNNING)
+                .withOutput(done && !execution.stopped ? "{}" : null);
+    }
+
+    @Override
+    public StopExecutionResult stopExecution(StopExecutionRequest request) {
+        aws.call();
+        final var execution = executions.get(request.getExecutionArn());
+        if (execution != null) {
+            execution.stopped = true;
+        }
+        return new StopExecutionResult().withStopDate(new Date());
+    }
+
+    private static final class Execution {
+        private final String input;
+        private final long startTime;
+        private volatile boolean stopped;
+
+        private Execution(String input, long startTime) {
+            this.input = input;
+            this.startTime = startTime;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes a JSON array element by element as the producer passes them on, rather than once all are collected.
+ * <p>
+ * The status is sent before the first element, so a producer failing midway leaves a truncated array, which is not
+ * closed so that clients cannot take it for a complete one.
+ */
+public class JsonArrayStream<T> implements StreamingResponseBody {
+    private static final int FLUSH_EVERY = 100;
+
+    private final ObjectMapper mapper;
+    private final Consumer<Consumer<T>> producer;
+
+    public JsonArrayStream(ObjectMapper mapper, Consumer<Consumer<T>> producer) {
+        this.mapper = mapper;
+        this.producer = producer;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (var generator = mapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            generator.writeStartArray();
+            final var written = new int[1];
+            try {
+                producer.accept(element -> {
+                    try {
+                        generator.writeObject(element);
+                        if (++written[0] % FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.writeEndArray();
+        }
+    }
+}
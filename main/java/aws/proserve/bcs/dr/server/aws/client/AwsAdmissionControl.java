@@ -0,0 +1,251 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+import aws.proserve.bcs.dr.server.exception.ServerBusyException;
+import aws.proserve.bcs.dr.server.metric.service.Counter;
+import aws.proserve.bcs.dr.server.metric.service.Histogram;
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.RetryUtils;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Named;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits the requests of the rate limited services, Step Functions and Lambda by default, through a limiter per
+ * service, operation and region: a token bucket for every attempt, and at most <code>concurrency</code> requests in
+ * flight.
+ * <p>
+ * The rate of a limiter follows the throttling of AWS: it is cut by <code>decreaseFactor</code> when an attempt is
+ * throttled, at most once a second, and grows back by about <code>increasePerSecond</code> each second of
+ * successful attempts, up to <code>ratePerSecond</code>.
+ * <p>
+ * A request that cannot get a slot and a token within <code>timeoutMillis</code> fails with a
+ * {@link ServerBusyException}, rather than holding its thread. Requests are retried only by the retry policy of their
+ * client.
+ * <p>
+ * Clients declared as beans are instrumented by {@link AwsClientInstrumenter}.
+ */
+@Named
+public class AwsAdmissionControl extends RequestHandler2 {
+
+    private static final HandlerContextKey<Limiter> LIMITER = new HandlerContextKey<>("PortalAdmissionLimiter");
+    private static final HandlerContextKey<Boolean> ATTEMPTED = new HandlerContextKey<>("PortalAdmissionAttempted");
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MetricService metricService;
+    private final Set<String> services;
+    private final double ratePerSecond;
+    private final double minRatePerSecond;
+    private final double burst;
+    private final int concurrency;
+    private final double increasePerSecond;
+    private final double decreaseFactor;
+    private final long timeoutNanos;
+    private final ConcurrentMap<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    AwsAdmissionControl(
+            MetricService metricService,
+            @Value("${portal.aws.admission.services:AWSStepFunctions,AWSLambda}") String[] services,
+            @Value("${portal.aws.admission.ratePerSecond:25}") double ratePerSecond,
+            @Value("${portal.aws.admission.minRatePerSecond:1}") double minRatePerSecond,
+            @Value("${portal.aws.admission.burst:50}") double burst,
+            @Value("${portal.aws.admission.concurrency:32}") int concurrency,
+            @Value("${portal.aws.admission.increasePerSecond:1}") double increasePerSecond,
+            @Value("${portal.aws.admission.decreaseFactor:0.5}") double decreaseFactor,
+            @Value("${portal.aws.admission.timeoutMillis:10000}") long timeoutMillis) {
+        this.metricService = metricService;
+        this.services = Set.of(services);
+        this.ratePerSecond = ratePerSecond;
+        this.minRatePerSecond = minRatePerSecond;
+        this.burst = burst;
+        this.concurrency = concurrency;
+        this.increasePerSecond = increasePerSecond;
+        this.decreaseFactor = decreaseFactor;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Waits for a slot and a token, so that queued requests are counted apart from admitted ones.
+     *
+     * @throws ServerBusyException if they cannot be had within the timeout.
+     */
+    @Override
+    public void beforeRequest(Request<?> request) {
+        if (!services.contains(request.getServiceName())) {
+            return;
+        }
+
+        final var tags = AwsRequestMetrics.tags(request);
+        final var limiter = limiters.computeIfAbsent(String.join("|", tags), key -> new Limiter(tags));
+        final var queuedAt = System.nanoTime();
+        limiter.queued.incrementAndGet();
+        try {
+            if (!limiter.slots.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw limiter.busy();
+            }
+            try {
+                final var leftNanos = Math.max(0, timeoutNanos - (System.nanoTime() - queuedAt));
+                if (!limiter.bucket.tryAcquire(leftNanos, TimeUnit.NANOSECONDS)) {
+                    throw limiter.busy();
+                }
+            } catch (InterruptedException | RuntimeException e) {
+                limiter.slots.release();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting for admission", e);
+        } finally {
+            limiter.queued.decrementAndGet();
+        }
+
+        request.addHandlerContext(LIMITER, limiter);
+        limiter.admitted.increment();
+        limiter.waitMillis.record((System.nanoTime() - queuedAt) / 1_000_000);
+    }
+
+    /**
+     * A retry takes a token of its own, the slot of the request being kept across attempts. A retry failing here is
+     * not an <code>AmazonClientException</code>, so the slot is released before.
+     */
+    @Override
+    public void beforeAttempt(HandlerBeforeAttemptContext context) {
+        final var request = context.getRequest();
+        final var limiter = request.getHandlerContext(LIMITER);
+        if (limiter == null) {
+            return;
+        }
+        if (request.getHandlerContext(ATTEMPTED) == null) {
+            request.addHandlerContext(ATTEMPTED, true);
+            return;
+        }
+
+        try {
+            if (!limiter.bucket.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                release(request);
+                throw limiter.busy();
+            }
+        } catch (InterruptedException e) {
+            release(request);
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting for admission", e);
+        }
+    }
+
+    /**
+     * An attempt failing by other than an <code>AmazonClientException</code> ends the request without
+     * {@link #afterError}, so the slot is released here.
+     */
+    @Override
+    public void afterAttempt(HandlerAfterAttemptContext context) {
+        final var limiter = context.getRequest().getHandlerContext(LIMITER);
+        if (limiter == null) {
+            return;
+        }
+
+        final var exception = context.getException();
+        if (exception != null && !(exception instanceof AmazonClientException)) {
+            release(context.getRequest());
+        }
+        if (exception == null) {
+            limiter.increase();
+        } else if (isThrottling(exception)) {
+            limiter.decrease();
+        }
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        release(request);
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        release(request);
+    }
+
+    private void release(Request<?> request) {
+        final var limiter = request.getHandlerContext(LIMITER);
+        if (limiter != null) {
+            request.addHandlerContext(LIMITER, null);
+            limiter.slots.release();
+        }
+    }
+
+    private static boolean isThrottling(Throwable e) {
+        for (var cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SdkBaseException && RetryUtils.isThrottlingException((SdkBaseException) cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class Limiter {
+        private final TokenBucket bucket = new TokenBucket(ratePerSecond, burst);
+        private final Semaphore slots = new Semaphore(concurrency, true);
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Counter admitted;
+        private final Counter decreases;
+        private final Counter rejected;
+        private final Histogram waitMillis;
+        private long decreasedAt = System.nanoTime() - DECREASE_INTERVAL_NANOS;
+
+        private Limiter(String[] tags) {
+            this.admitted = metricService.counter("aws_admission_admitted", tags);
+            this.decreases = metricService.counter("aws_admission_rate_decreases", tags);
+            this.rejected = metricService.counter("aws_admission_rejected", tags);
+            this.waitMillis = metricService.timer("aws_admission_wait_millis", tags);
+            metricService.gauge("aws_admission_queued", queued::get, tags);
+            metricService.gauge("aws_admission_in_flight", () -> concurrency - slots.availablePermits(), tags);
+            metricService.gauge("aws_admission_rate", bucket::getRatePerSecond, tags);
+        }
+
+        private ServerBusyException busy() {
+            rejected.increment();
+            return new ServerBusyException("服务器繁忙，AWS 请求过多，请稍后重试");
+        }
+
+        /**
+         * Adds <code>increasePerSecond / rate</code>, that is about <code>increasePerSecond</code> for the attempts
+         * of a second at the current rate.
+         */
+        private synchronized void increase() {
+            final var rate = bucket.getRatePerSecond();
+            if (rate < ratePerSecond) {
+                bucket.setRatePerSecond(Math.min(ratePerSecond, rate + increasePerSecond / rate));
+            }
+        }
+
+        /**
+         * The throttled attempts of a second are answers to the same excess, so only the first one cuts the rate.
+         */
+        private synchronized void decrease() {
+            final var now = System.nanoTime();
+            if (now - decreasedAt < DECREASE_INTERVAL_NANOS) {
+                return;
+            }
+
+            decreasedAt = now;
+            decreases.increment();
+            bucket.setRatePerSecond(Math.max(minRatePerSecond, bucket.getRatePerSecond() * decreaseFactor));
+        }
+    }
+}
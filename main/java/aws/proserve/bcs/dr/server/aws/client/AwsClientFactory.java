@@ -0,0 +1,18 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+/**
+ * Creates the clients of {@link AwsClientRegistry} in place of the SDK builders, to run the server against stand-ins
+ * of AWS. There is no such bean in production.
+ */
+public interface AwsClientFactory {
+
+    /**
+     * @param service one of <code>ec2</code>, <code>rds</code>, <code>dynamodb</code>, <code>iam</code> and
+     *                <code>secretsmanager</code>.
+     * @return the client, or <code>null</code> to build the real one.
+     */
+    Object create(String service, String region);
+}
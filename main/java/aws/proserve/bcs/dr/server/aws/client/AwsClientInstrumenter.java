@@ -0,0 +1,39 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+import com.amazonaws.AmazonWebServiceClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.inject.Named;
+
+/**
+ * Adds {@link AwsAdmissionControl} and {@link AwsRequestMetrics} to AWS clients declared as beans, such as those of
+ * <code>AwsConfig</code>. The time a request waits for admission is not counted in its latency.
+ */
+@Named
+class AwsClientInstrumenter implements BeanPostProcessor {
+
+    private final ObjectProvider<AwsAdmissionControl> admissionControl;
+    private final ObjectProvider<AwsRequestMetrics> requestMetrics;
+
+    AwsClientInstrumenter(
+            ObjectProvider<AwsAdmissionControl> admissionControl,
+            ObjectProvider<AwsRequestMetrics> requestMetrics) {
+        this.admissionControl = admissionControl;
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AmazonWebServiceClient) {
+            final var client = (AmazonWebServiceClient) bean;
+            client.addRequestHandler(admissionControl.getObject());
+            client.addRequestHandler(requestMetrics.getObject());
+        }
+        return bean;
+    }
+}
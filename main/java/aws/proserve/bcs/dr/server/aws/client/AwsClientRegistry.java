@@ -0,0 +1,274 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+import aws.proserve.bcs.dr.secret.Credential;
+import aws.proserve.bcs.dr.server.metric.service.Counter;
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import com.amazonaws.AmazonWebServiceClient;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.ec2.AmazonEC2;
+import com.amazonaws.services.ec2.AmazonEC2ClientBuilder;
+import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
+import com.amazonaws.services.identitymanagement.AmazonIdentityManagementClientBuilder;
+import com.amazonaws.services.rds.AmazonRDS;
+import com.amazonaws.services.rds.AmazonRDSClientBuilder;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Shares AWS clients across requests, keyed by service, region and credential identity.
+ * <p>
+ * A client owns its connection pool, so building one per request costs new TLS handshakes and leaks sockets until
+ * it is garbage collected. The registry keeps at most <code>maxSize</code> clients, evicting the least recently used
+ * one, and evicts clients that have been idle for longer than <code>idleMinutes</code>.
+ * <p>
+ * An evicted client may still be in use by a request that looked it up before, such as a streamed inventory, so it
+ * is only shut down <code>graceMinutes</code> after its eviction, longer than the longest request.
+ */
+@Named
+public class AwsClientRegistry {
+    private static final String DEFAULT_IDENTITY = "default";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final int maxSize;
+    private final long idleMillis;
+    private final long graceMillis;
+    private final ConcurrentMap<ClientKey, Entry> clients;
+    private final Queue<Entry> retired = new ConcurrentLinkedQueue<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final AwsRequestMetrics requestMetrics;
+    private final AwsClientFactory clientFactory;
+
+    AwsClientRegistry(
+            MetricService metricService,
+            AwsRequestMetrics requestMetrics,
+            ObjectProvider<AwsClientFactory> clientFactory,
+            @Value("${portal.aws.clients.maxSize:64}") int maxSize,
+            @Value("${portal.aws.clients.idleMinutes:30}") long idleMinutes,
+            @Value("${portal.aws.clients.graceMinutes:10}") long graceMinutes) {
+        this.maxSize = maxSize;
+        this.idleMillis = TimeUnit.MINUTES.toMillis(idleMinutes);
+        this.graceMillis = TimeUnit.MINUTES.toMillis(graceMinutes);
+        this.clients = new ConcurrentHashMap<>();
+        this.hits = metricService.counter("aws_client_registry_hits");
+        this.misses = metricService.counter("aws_client_registry_misses");
+        this.evictions = metricService.counter("aws_client_registry_evictions");
+        this.requestMetrics = requestMetrics;
+        this.clientFactory = clientFactory.getIfAvailable();
+        metricService.gauge("aws_client_registry_clients", this::size);
+    }
+
+    public AmazonEC2 ec2(String region) {
+        return ec2(region, null);
+    }
+
+    public AmazonEC2 ec2(String region, Credential credential) {
+        return get("ec2", region, credential, provider -> AmazonEC2ClientBuilder.standard()
+                .withRegion(region)
+                .withCredentials(provider)
+                .withRequestHandlers(requestMetrics)
+                .build());
+    }
+
+    public AmazonRDS rds(String region, Credential credential) {
+        return get("rds", region, credential, provider -> AmazonRDSClientBuilder.standard()
+                .withRegion(region)
+                .withCredentials(provider)
+                .withRequestHandlers(requestMetrics)
+                .build());
+    }
+
+    public AmazonDynamoDB dynamoDB(String region, Credential credential) {
+        return get("dynamodb", region, credential, provider -> AmazonDynamoDBClientBuilder.standard()
+                .withRegion(region)
+                .withCredentials(provider)
+                .withRequestHandlers(requestMetrics)
+                .build());
+    }
+
+    public AmazonIdentityManagement iam(String region, Credential credential) {
+        return get("iam", region, credential, provider -> AmazonIdentityManagementClientBuilder.standard()
+                .withRegion(region)
+                .withCredentials(provider)
+                .withRequestHandlers(requestMetrics)
+                .build());
+    }
+
+    public AWSSecretsManager secretsManager(String region, Credential credential) {
+        return get("secretsmanager", region, credential, provider -> AWSSecretsManagerClientBuilder.standard()
+                .withRegion(region)
+                .withCredentials(provider)
+                .withRequestHandlers(requestMetrics)
+                .build());
+    }
+
+    /**
+     * The client is built within the mapping of its key, so that only the lookups of the same key wait for it and no
+     * client is left on an entry already evicted.
+     *
+     * @param builder builds the client, given <code>null</code> for the default credential provider chain.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T get(String service, String region, Credential credential,
+                      Function<AWSCredentialsProvider, T> builder) {
+        final var provider = credential == null ? null : Credential.toProvider(credential);
+        final var key = new ClientKey(service, region, identityOf(provider));
+        final var now = System.currentTimeMillis();
+        collectIdle(now);
+
+        final var built = new boolean[1];
+        final var entry = clients.computeIfAbsent(key, k -> {
+            built[0] = true;
+            log.debug("Create {} client for {}", service, region);
+            final var created = clientFactory == null ? null : clientFactory.create(service, region);
+            return new Entry(created == null ? builder.apply(provider) : created, now);
+        });
+        if (built[0]) {
+            misses.increment();
+        } else {
+            hits.increment();
+            entry.lastAccess = now;
+        }
+
+        collectEldest(now);
+        shutdownRetired(now);
+        return (T) entry.client;
+    }
+
+    private void collectIdle(long now) {
+        for (var e : clients.entrySet()) {
+            if (now - e.getValue().lastAccess > idleMillis && clients.remove(e.getKey(), e.getValue())) {
+                retire(e.getValue(), now);
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used clients beyond <code>maxSize</code>.
+     */
+    private void collectEldest(long now) {
+        while (clients.size() > maxSize) {
+            final var eldest = clients.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            if (eldest.isEmpty()) {
+                return;
+            }
+            if (clients.remove(eldest.get().getKey(), eldest.get().getValue())) {
+                retire(eldest.get().getValue(), now);
+            }
+        }
+    }
+
+    private void retire(Entry entry, long now) {
+        evictions.increment();
+        entry.retiredAt = now;
+        retired.add(entry);
+    }
+
+    /**
+     * Shuts down the clients evicted more than <code>graceMinutes</code> ago, in the order they were evicted.
+     */
+    private void shutdownRetired(long now) {
+        for (var entry = retired.peek(); entry != null && now - entry.retiredAt > graceMillis; entry = retired.peek()) {
+            if (retired.remove(entry)) {
+                shutdown(entry);
+            }
+        }
+    }
+
+    private static void shutdown(Entry entry) {
+        if (entry.client instanceof AmazonWebServiceClient) {
+            ((AmazonWebServiceClient) entry.client).shutdown();
+        }
+    }
+
+    private static String identityOf(AWSCredentialsProvider provider) {
+        if (provider == null) {
+            return DEFAULT_IDENTITY;
+        }
+
+        final var credentials = provider.getCredentials();
+        return credentials.getAWSAccessKeyId() + ":" + Integer.toHexString(credentials.getAWSSecretKey().hashCode());
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    void close() {
+        for (var key : clients.keySet()) {
+            final var entry = clients.remove(key);
+            if (entry != null) {
+                shutdown(entry);
+            }
+        }
+        for (var entry = retired.poll(); entry != null; entry = retired.poll()) {
+            shutdown(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final Object client;
+        private volatile long lastAccess;
+        private volatile long retiredAt;
+
+        private Entry(Object client, long lastAccess) {
+            this.client = client;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class ClientKey {
+        private final String service;
+        private final String region;
+        private final String identity;
+
+        private ClientKey(String service, String region, String identity) {
+            this.service = service;
+            this.region = region;
+            this.identity = identity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClientKey)) {
+                return false;
+            }
+            final var that = (ClientKey) o;
+            return service.equals(that.service)
+                    && region.equals(that.region)
+                    && identity.equals(that.identity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(service, region, identity);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.util.SdkHttpUtils;
+
+import javax.inject.Named;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Records every AWS SDK request, tagged by service, operation and region: its latency, retries, throttled attempts,
+ * errors, and the size of its request and response payloads.
+ * <p>
+ * Clients of the registry are built with it, other clients are instrumented by {@link AwsClientInstrumenter}.
+ */
+@Named
+public class AwsRequestMetrics extends RequestHandler2 {
+
+    /**
+     * Bucket bounds of a payload size, in bytes.
+     */
+    private static final long[] BYTES = {256, 1_024, 4_096, 16_384, 65_536, 262_144, 1_048_576, 4_194_304};
+
+    private static final HandlerContextKey<Long> START_TIME = new HandlerContextKey<>("PortalStartTime");
+    private static final HandlerContextKey<Integer> ATTEMPTS = new HandlerContextKey<>("PortalAttempts");
+
+    private final MetricService metricService;
+
+    AwsRequestMetrics(MetricService metricService) {
+        this.metricService = metricService;
+    }
+
+    @Override
+    public void beforeRequest(Request<?> request) {
+        request.addHandlerContext(START_TIME, System.nanoTime());
+        request.addHandlerContext(ATTEMPTS, 0);
+        recordRequest(request);
+    }
+
+    @Override
+    public void beforeAttempt(HandlerBeforeAttemptContext context) {
+        final var request = context.getRequest();
+        final var attempts = request.getHandlerContext(ATTEMPTS);
+        if (attempts == null) {
+            return;
+        }
+
+        request.addHandlerContext(ATTEMPTS, attempts + 1);
+        if (attempts > 0) {
+            metricService.counter("aws_request_retries", tags(request)).increment();
+        }
+    }
+
+    @Override
+    public void afterAttempt(HandlerAfterAttemptContext context) {
+        final var exception = context.getException();
+        if (exception instanceof SdkBaseException && RetryUtils.isThrottlingException((SdkBaseException) exception)) {
+            metricService.counter("aws_request_throttles", tags(context.getRequest())).increment();
+        }
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        complete(request, response);
+    }
+
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        metricService.counter("aws_request_errors", tags(request)).increment();
+        complete(request, response);
+    }
+
+    private void complete(Request<?> request, Response<?> response) {
+        final var startTime = request.getHandlerContext(START_TIME);
+        if (startTime != null) {
+            metricService.timer("aws_request_millis", tags(request))
+                    .record((System.nanoTime() - startTime) / 1_000_000);
+        }
+        if (response != null && response.getHttpResponse() != null) {
+            record(request, "aws_response_bytes", response.getHttpResponse().getHeaders());
+        }
+    }
+
+    /**
+     * Query protocol clients, such as those of EC2, RDS and IAM, send their parameters as a form body that is encoded
+     * after the handlers run, so its size is measured from the parameters instead of a header not yet set.
+     */
+    private void recordRequest(Request<?> request) {
+        if (request.getContent() != null || request.getParameters().isEmpty()) {
+            record(request, "aws_request_bytes", request.getHeaders());
+            return;
+        }
+
+        final var body = SdkHttpUtils.encodeParameters(request);
+        if (body != null) {
+            metricService.histogram("aws_request_bytes", BYTES, tags(request))
+                    .record(body.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    /**
+     * Records the <code>Content-Length</code> header, absent from streamed payloads.
+     */
+    private void record(Request<?> request, String name, Map<String, String> headers) {
+        final var length = headers.entrySet().stream()
+                .filter(e -> e.getKey().equalsIgnoreCase("Content-Length"))
+                .map(Map.Entry::getValue)
+                .findFirst();
+        if (length.isEmpty()) {
+            return;
+        }
+
+        try {
+            metricService.histogram(name, BYTES, tags(request)).record(Long.parseLong(length.get()));
+        } catch (NumberFormatException e) {
+            // not a size to record
+        }
+    }
+
+    static String[] tags(Request<?> request) {
+        final var operation = request.getOriginalRequest().getClass().getSimpleName();
+        final var region = request.getHandlerContext(HandlerContextKey.SIGNING_REGION);
+        return new String[]{
+                "service", request.getServiceName(),
+                "operation", operation.endsWith("Request")
+                ? operation.substring(0, operation.length() - "Request".length())
+                : operation,
+                "region", region == null ? request.getEndpoint().getHost() : region};
+    }
+}
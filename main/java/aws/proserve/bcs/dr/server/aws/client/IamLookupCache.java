@@ -0,0 +1,139 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+import aws.proserve.bcs.dr.server.cache.service.BoundedCache;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCacheManager;
+import aws.proserve.bcs.dr.server.cache.service.Caches;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
+import com.amazonaws.services.identitymanagement.model.NoSuchEntityException;
+
+import javax.inject.Named;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Shares the answers of read-only IAM calls, such as the instance profile and the policies of a role, across
+ * instances and requests.
+ * <p>
+ * Concurrent identical calls wait for the first one. Missing entities are cached like answers, other failures are
+ * not.
+ */
+@Named
+public class IamLookupCache {
+
+    private final BoundedCache cache;
+
+    IamLookupCache(BoundedCacheManager cacheManager) {
+        this.cache = cacheManager.getCache(Caches.IAM_LOOKUPS);
+    }
+
+    /**
+     * @return the client, whose <code>get*</code> and <code>list*</code> calls are answered from the cache, except
+     * <code>getCachedResponseMetadata</code>, which describes a call rather than an entity.
+     */
+    public AmazonIdentityManagement wrap(AmazonIdentityManagement iam) {
+        return (AmazonIdentityManagement) Proxy.newProxyInstance(
+                AmazonIdentityManagement.class.getClassLoader(),
+                new Class<?>[]{AmazonIdentityManagement.class},
+                (proxy, method, args) -> isLookup(method, args)
+                        ? lookup(iam, method, (AmazonWebServiceRequest) args[0])
+                        : invoke(iam, method, args));
+    }
+
+    private static boolean isLookup(Method method, Object[] args) {
+        return (method.getName().startsWith("get") || method.getName().startsWith("list"))
+                && !method.getName().equals("getCachedResponseMetadata")
+                && args != null && args.length == 1 && args[0] instanceof AmazonWebServiceRequest;
+    }
+
+    /**
+     * The request is copied into the key, as callers may change it to ask for the next page.
+     */
+    @SuppressWarnings("unchecked")
+    private Object lookup(AmazonIdentityManagement iam, Method method, AmazonWebServiceRequest request)
+            throws Throwable {
+        final var key = new Key(iam, method.getName(), request.clone());
+        final CompletableFuture<Object> answer;
+        var owner = false;
+        synchronized (cache) {
+            final var cached = cache.get(key, CompletableFuture.class);
+            if (cached != null) {
+                answer = cached;
+            } else {
+                answer = new CompletableFuture<>();
+                cache.put(key, answer);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            try {
+                answer.complete(invoke(iam, method, new Object[]{request}));
+            } catch (Throwable e) {
+                if (!(e instanceof NoSuchEntityException)) {
+                    synchronized (cache) {
+                        if (cache.get(key, CompletableFuture.class) == answer) {
+                            cache.evict(key);
+                        }
+                    }
+                }
+                answer.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return answer.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object invoke(AmazonIdentityManagement iam, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(iam, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A call of a client, which is compared by identity as it stands for a credential.
+     */
+    private static final class Key {
+        private final AmazonIdentityManagement client;
+        private final String method;
+        private final Object request;
+
+        private Key(AmazonIdentityManagement client, String method, Object request) {
+            this.client = client;
+            this.method = method;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final var that = (Key) o;
+            return client == that.client
+                    && method.equals(that.method)
+                    && request.equals(that.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(client), method, request);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits calls at <code>ratePerSecond</code>, allowing bursts of up to <code>capacity</code> calls.
+ * <p>
+ * A call arriving at an empty bucket reserves the next token, so that waiting calls are admitted in the order they
+ * arrived.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private double ratePerSecond;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this.capacity = capacity;
+        this.ratePerSecond = ratePerSecond;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting for it if need be.
+     */
+    public void acquire() throws InterruptedException {
+        final var waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a token if it can be had within the timeout, waiting for it if need be.
+     *
+     * @return <code>false</code> if the token would come later, none being taken.
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        final var waitNanos = reserve(unit.toNanos(timeout));
+        if (waitNanos < 0) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return true;
+    }
+
+    /**
+     * @return how long to wait for the token taken, in nanoseconds.
+     */
+    long reserve() {
+        return reserve(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return how long to wait for the token taken, in nanoseconds, or <code>-1</code> if it would be longer than
+     * <code>timeoutNanos</code>, no token being taken.
+     */
+    private synchronized long reserve(long timeoutNanos) {
+        refill();
+        final var waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / ratePerSecond * TimeUnit.SECONDS.toNanos(1));
+        if (waitNanos > timeoutNanos) {
+            return -1;
+        }
+
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    public synchronized double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public synchronized void setRatePerSecond(double ratePerSecond) {
+        refill();
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    private void refill() {
+        final var now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+        refilledAt = now;
+    }
+}
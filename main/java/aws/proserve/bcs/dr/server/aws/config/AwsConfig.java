@@ -3,14 +3,23 @@
 
 package aws.proserve.bcs.dr.server.aws.config;
 
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.project.service.ProjectCache;
 import com.amazonaws.ClientConfiguration;
+import com.amazonaws.retry.PredefinedBackoffStrategies;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBDeleteExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.AWSStepFunctionsClientBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -19,18 +28,61 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 class AwsConfig {
 
+    /**
+     * Throttled calls are retried after a delay drawn at random between half and all of an exponential bound, other
+     * retryable failures after one drawn below it.
+     */
     @Bean
-    AWSStepFunctions stepFunctions() {
+    AWSStepFunctions stepFunctions(
+            @Value("${portal.aws.admission.retry.maxAttempts:6}") int maxAttempts,
+            @Value("${portal.aws.admission.retry.baseDelayMillis:200}") int baseDelayMillis,
+            @Value("${portal.aws.admission.retry.throttledBaseDelayMillis:500}") int throttledBaseDelayMillis,
+            @Value("${portal.aws.admission.retry.maxDelayMillis:20000}") int maxDelayMillis) {
         return AWSStepFunctionsClientBuilder.standard()
                 .withClientConfiguration(new ClientConfiguration()
-                        .withSocketTimeout((int) TimeUnit.MINUTES.toMillis(5)))
+                        .withSocketTimeout((int) TimeUnit.MINUTES.toMillis(5))
+                        .withRetryPolicy(new RetryPolicy(
+                                PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION,
+                                new PredefinedBackoffStrategies.SDKDefaultBackoffStrategy(
+                                        baseDelayMillis, throttledBaseDelayMillis, maxDelayMillis),
+                                maxAttempts - 1,
+                                false)))
                 .build();
     }
 
+    /**
+     * Evicts the cached copy of every project it saves or deletes, including the saves of the state machines of the
+     * library, which do not go through the services of the portal.
+     */
     @Bean
-    DynamoDBMapper dynamoDBMapper(AmazonDynamoDB amazonDynamoDB) {
+    DynamoDBMapper dynamoDBMapper(AmazonDynamoDB amazonDynamoDB, ObjectProvider<ProjectCache> projectCache) {
         return new DynamoDBMapper(amazonDynamoDB, DynamoDBMapperConfig.builder()
                 .withSaveBehavior(DynamoDBMapperConfig.SaveBehavior.CLOBBER)
-                .build());
+                .build()) {
+
+            @Override
+            public <T> void save(T object, DynamoDBSaveExpression expression, DynamoDBMapperConfig config) {
+                try {
+                    super.save(object, expression, config);
+                } finally {
+                    evict(object);
+                }
+            }
+
+            @Override
+            public <T> void delete(T object, DynamoDBDeleteExpression expression, DynamoDBMapperConfig config) {
+                try {
+                    super.delete(object, expression, config);
+                } finally {
+                    evict(object);
+                }
+            }
+
+            private void evict(Object object) {
+                if (object instanceof Project && ((Project) object).getId() != null) {
+                    projectCache.getObject().evict(((Project) object).getId());
+                }
+            }
+        };
     }
 }
@@ -0,0 +1,73 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.config;
+
+import aws.proserve.bcs.dr.server.exception.ServerBusyException;
+import aws.proserve.bcs.dr.server.metric.service.Histogram;
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed size pool with a bounded queue, named threads and metrics tagged by the pool name.
+ * <p>
+ * A task submitted to a full queue is rejected with {@link ServerBusyException} rather than queued without bound.
+ */
+class MonitoredExecutor extends ThreadPoolExecutor {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final Histogram waitTimer;
+    private final Histogram runTimer;
+
+    MonitoredExecutor(String name, int threads, int queueSize, MetricService metricService) {
+        super(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(queueSize),
+                new CustomizableThreadFactory(name + "-"),
+                rejectionHandler(name, metricService));
+        allowCoreThreadTimeOut(true);
+
+        this.name = name;
+        this.waitTimer = metricService.timer("executor_task_wait_millis", "executor", name);
+        this.runTimer = metricService.timer("executor_task_run_millis", "executor", name);
+        metricService.gauge("executor_queue_depth", () -> getQueue().size(), "executor", name);
+        metricService.gauge("executor_active", this::getActiveCount, "executor", name);
+        metricService.gauge("executor_pool_size", this::getPoolSize, "executor", name);
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(String name, MetricService metricService) {
+        final var rejected = metricService.counter("executor_rejected", "executor", name);
+        return (task, executor) -> {
+            rejected.increment();
+            throw new ServerBusyException("服务器繁忙，" + name + " 任务过多，请稍后重试");
+        };
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        final var queuedAt = System.nanoTime();
+        super.execute(() -> {
+            final var startAt = System.nanoTime();
+            waitTimer.record(TimeUnit.NANOSECONDS.toMillis(startAt - queuedAt));
+            try {
+                command.run();
+            } finally {
+                runTimer.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startAt));
+            }
+        });
+    }
+
+    public void awaitShutdown() throws InterruptedException {
+        shutdown();
+        if (!awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Executor {} did not terminate, {} tasks dropped", name, shutdownNow().size());
+        }
+    }
+}
@@ -4,17 +4,73 @@
 package aws.proserve.bcs.dr.server.aws.config;
 
 
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
+/**
+ * One executor per workload, so that a slow workload cannot starve another.
+ */
 @Configuration
 class PortalConfig {
 
-    @Bean
-    ExecutorService sharedExecutor() {
-        return Executors.newFixedThreadPool(10);
+    /**
+     * Applies the outcome of replication executions.
+     */
+    @Bean(destroyMethod = "awaitShutdown")
+    @Primary
+    ExecutorService replicationExecutor(
+            MetricService metricService,
+            @Value("${portal.executors.replication.threads:4}") int threads,
+            @Value("${portal.executors.replication.queueSize:1000}") int queueSize) {
+        return new MonitoredExecutor("replication", threads, queueSize, metricService);
+    }
+
+    /**
+     * Starts and stops executions of bulk requests, whose calls wait on Step Functions.
+     */
+    @Bean(destroyMethod = "awaitShutdown")
+    ExecutorService dispatchExecutor(
+            MetricService metricService,
+            @Value("${portal.executors.dispatch.threads:4}") int threads,
+            @Value("${portal.executors.dispatch.queueSize:100}") int queueSize) {
+        return new MonitoredExecutor("dispatch", threads, queueSize, metricService);
+    }
+
+    /**
+     * Fans out AWS inventory lookups, off the common fork join pool.
+     */
+    @Bean(destroyMethod = "awaitShutdown")
+    ExecutorService inventoryExecutor(
+            MetricService metricService,
+            @Value("${portal.executors.inventory.threads:8}") int threads,
+            @Value("${portal.executors.inventory.queueSize:10000}") int queueSize) {
+        return new MonitoredExecutor("inventory", threads, queueSize, metricService);
+    }
+
+    /**
+     * Writes streamed response bodies.
+     */
+    @Bean(destroyMethod = "awaitShutdown")
+    ExecutorService streamingExecutor(
+            MetricService metricService,
+            @Value("${portal.executors.streaming.threads:8}") int threads,
+            @Value("${portal.executors.streaming.queueSize:100}") int queueSize) {
+        return new MonitoredExecutor("streaming", threads, queueSize, metricService);
+    }
+
+    /**
+     * Removes what deleted projects leave behind.
+     */
+    @Bean(destroyMethod = "awaitShutdown")
+    ExecutorService cleanupExecutor(
+            MetricService metricService,
+            @Value("${portal.executors.cleanup.threads:2}") int threads,
+            @Value("${portal.executors.cleanup.queueSize:100}") int queueSize) {
+        return new MonitoredExecutor("cleanup", threads, queueSize, metricService);
     }
 }
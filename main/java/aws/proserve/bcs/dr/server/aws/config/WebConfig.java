@@ -0,0 +1,36 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.aws.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.inject.Named;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Streams response bodies on the streaming executor.
+ */
+@Configuration
+class WebConfig implements WebMvcConfigurer {
+
+    private final ExecutorService streamingExecutor;
+    private final long timeoutMillis;
+
+    WebConfig(
+            @Named("streamingExecutor") ExecutorService streamingExecutor,
+            @Value("${portal.streaming.timeoutMillis:300000}") long timeoutMillis) {
+        this.streamingExecutor = streamingExecutor;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new ConcurrentTaskExecutor(streamingExecutor));
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+}
@@ -5,17 +5,20 @@ package aws.proserve.bcs.dr.server.aws.service;
 
 import aws.proserve.bcs.dr.aws.AwsInstanceType;
 import aws.proserve.bcs.dr.aws.AwsSecurityGroup;
+import aws.proserve.bcs.dr.aws.AwsVpc;
 import aws.proserve.bcs.dr.aws.ImmutableAwsInstanceType;
 import aws.proserve.bcs.dr.project.Region;
+import aws.proserve.bcs.dr.server.aws.client.AwsClientRegistry;
+import aws.proserve.bcs.dr.server.cache.service.Caches;
 import aws.proserve.bcs.dr.vpc.Filters;
 import com.amazonaws.regions.Regions;
-import com.amazonaws.services.ec2.AmazonEC2ClientBuilder;
 import com.amazonaws.services.ec2.model.DescribeInstanceTypesRequest;
 import com.amazonaws.services.ec2.model.DescribeInstanceTypesResult;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsResult;
 import com.amazonaws.services.ec2.model.InstanceTypeInfo;
 import com.amazonaws.services.ec2.model.SecurityGroup;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -25,6 +28,12 @@ import java.util.stream.Stream;
 @Service
 public class AwsService {
 
+    private final AwsClientRegistry clients;
+
+    AwsService(AwsClientRegistry clients) {
+        this.clients = clients;
+    }
+
     public Region[] getRegions() {
         return Stream.of(Regions.values())
                 .map(Region::new)
@@ -32,10 +41,9 @@ public class AwsService {
                 .toArray(Region[]::new);
     }
 
+    @Cacheable(Caches.INSTANCE_TYPES)
     public AwsInstanceType[] getInstanceTypes(String region) {
-        final var ec2 = AmazonEC2ClientBuilder.standard()
-                .withRegion(region)
-                .build();
+        final var ec2 = clients.ec2(region);
 
         final var instanceTypes = new ArrayList<InstanceTypeInfo>();
         final var describeRequest = new DescribeInstanceTypesRequest();
@@ -54,10 +62,9 @@ public class AwsService {
                 .toArray(AwsInstanceType[]::new);
     }
 
+    @Cacheable(Caches.SECURITY_GROUPS)
     public AwsSecurityGroup[] getSecurityGroups(String region, String vpcId) {
-        final var ec2 = AmazonEC2ClientBuilder.standard()
-                .withRegion(region)
-                .build();
+        final var ec2 = clients.ec2(region);
 
         final var groups = new ArrayList<SecurityGroup>();
         final var describeRequest = new DescribeSecurityGroupsRequest().withFilters(Filters.vpcId(vpcId));
@@ -72,4 +79,9 @@ public class AwsService {
                 .map(t -> new AwsSecurityGroup(t.getGroupId(), t.getGroupName()))
                 .toArray(AwsSecurityGroup[]::new);
     }
+
+    @Cacheable(Caches.VPCS)
+    public AwsVpc[] getVpcs(String region) {
+        return AwsVpc.getVpcs(clients.ec2(region)).stream().map(AwsVpc::convert).toArray(AwsVpc[]::new);
+    }
 }
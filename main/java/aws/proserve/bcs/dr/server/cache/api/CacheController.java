@@ -0,0 +1,61 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.cache.api;
+
+import aws.proserve.bcs.dr.dto.Response;
+import aws.proserve.bcs.dr.exception.PortalException;
+import aws.proserve.bcs.dr.server.cache.dto.CacheStats;
+import aws.proserve.bcs.dr.server.cache.dto.ImmutableCacheStats;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCache;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/caches")
+class CacheController {
+
+    private final BoundedCacheManager cacheManager;
+
+    CacheController(BoundedCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping
+    ResponseEntity<CacheStats[]> getCaches() {
+        return ResponseEntity.ok(cacheManager.getCaches()
+                .stream()
+                .map(cache -> ImmutableCacheStats.builder()
+                        .name(cache.getName())
+                        .size(cache.size())
+                        .maxSize(cache.getMaxSize())
+                        .ttlMillis(cache.getTtlMillis())
+                        .hits(cache.getHits())
+                        .misses(cache.getMisses())
+                        .evictions(cache.getEvictions())
+                        .expirations(cache.getExpirations())
+                        .build())
+                .toArray(CacheStats[]::new));
+    }
+
+    @DeleteMapping
+    ResponseEntity<Response> clearAll() {
+        cacheManager.getCaches().forEach(BoundedCache::clear);
+        return ResponseEntity.accepted().body(Response.SUCCESS);
+    }
+
+    @DeleteMapping("/{name}")
+    ResponseEntity<Response> clear(@PathVariable String name) {
+        if (!cacheManager.getCacheNames().contains(name)) {
+            throw new PortalException("Unknown cache " + name);
+        }
+
+        cacheManager.getCache(name).clear();
+        return ResponseEntity.accepted().body(Response.SUCCESS);
+    }
+}
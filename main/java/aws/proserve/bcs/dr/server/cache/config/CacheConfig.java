@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.cache.config;
+
+import aws.proserve.bcs.dr.server.cache.service.BoundedCacheManager;
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+class CacheConfig {
+
+    @Bean
+    BoundedCacheManager cacheManager(Environment environment, MetricService metricService) {
+        return new BoundedCacheManager(environment, metricService);
+    }
+}
@@ -0,0 +1,30 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.cache.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+@JsonSerialize(as = ImmutableCacheStats.class)
+@JsonDeserialize(as = ImmutableCacheStats.class)
+@Value.Immutable
+public interface CacheStats {
+
+    String getName();
+
+    int getSize();
+
+    int getMaxSize();
+
+    long getTtlMillis();
+
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    long getExpirations();
+}
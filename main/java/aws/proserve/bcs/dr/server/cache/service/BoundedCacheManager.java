@@ -0,0 +1,56 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.cache.service;
+
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a {@link BoundedCache} for each of {@link Caches}, and for any other name on its first use.
+ * <p>
+ * Each cache is sized by <code>portal.cache.specs.{name}.maxSize</code> and <code>.ttlSeconds</code>,
+ * falling back to <code>portal.cache.default.*</code>.
+ */
+public class BoundedCacheManager implements CacheManager {
+    private static final String PREFIX = "portal.cache.";
+
+    private final Environment environment;
+    private final MetricService metricService;
+    private final ConcurrentMap<String, BoundedCache> caches = new ConcurrentHashMap<>();
+
+    public BoundedCacheManager(Environment environment, MetricService metricService) {
+        this.environment = environment;
+        this.metricService = metricService;
+        Caches.ALL.forEach(this::getCache);
+    }
+
+    @Override
+    public BoundedCache getCache(String name) {
+        return caches.computeIfAbsent(name, this::create);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public Collection<BoundedCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    private BoundedCache create(String name) {
+        final var maxSize = environment.getProperty(PREFIX + "specs." + name + ".maxSize", Integer.class,
+                environment.getProperty(PREFIX + "default.maxSize", Integer.class, 256));
+        final var ttlSeconds = environment.getProperty(PREFIX + "specs." + name + ".ttlSeconds", Long.class,
+                environment.getProperty(PREFIX + "default.ttlSeconds", Long.class, 300L));
+        return new BoundedCache(name, maxSize, TimeUnit.SECONDS.toMillis(ttlSeconds), metricService);
+    }
+}
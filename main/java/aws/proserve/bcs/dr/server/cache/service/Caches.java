@@ -0,0 +1,28 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.cache.service;
+
+import java.util.List;
+
+/**
+ * Names of the caches, see <code>portal.cache.specs</code> in <code>application.yaml</code>.
+ */
+public final class Caches {
+    public static final String DATABASES = "databases";
+    public static final String IAM_LOOKUPS = "iamLookups";
+    public static final String INSTANCE_TYPES = "instanceTypes";
+    public static final String PROJECTS = "projects";
+    public static final String SECURITY_GROUPS = "securityGroups";
+    public static final String SNAPSHOTS = "snapshots";
+    public static final String VPCS = "vpcs";
+
+    /**
+     * The caches created at startup, so that they can be cleared by name before their first use.
+     */
+    static final List<String> ALL = List.of(
+            DATABASES, IAM_LOOKUPS, INSTANCE_TYPES, PROJECTS, SECURITY_GROUPS, SNAPSHOTS, VPCS);
+
+    private Caches() {
+    }
+}
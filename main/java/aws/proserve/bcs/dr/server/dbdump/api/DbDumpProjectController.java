@@ -9,9 +9,15 @@ import aws.proserve.bcs.dr.dto.Response;
 import aws.proserve.bcs.dr.dto.request.DeleteItemsRequest;
 import aws.proserve.bcs.dr.project.Component;
 import aws.proserve.bcs.dr.project.Side;
+import aws.proserve.bcs.dr.server.aws.api.JsonArrayStream;
 import aws.proserve.bcs.dr.server.dbdump.dto.ManageDbDumpItemRequest;
+import aws.proserve.bcs.dr.server.dbdump.dto.ManageDbDumpItemsRequest;
 import aws.proserve.bcs.dr.server.dbdump.service.DbDumpService;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
 import aws.proserve.bcs.dr.server.project.service.ProjectService;
+import aws.proserve.bcs.dr.server.project.service.ProjectSnapshots;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,7 +25,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/dbdump/projects")
@@ -27,12 +36,18 @@ public class DbDumpProjectController {
 
     private final DbDumpService service;
     private final ProjectService projectService;
+    private final ProjectSnapshots snapshots;
+    private final ObjectMapper mapper;
 
     DbDumpProjectController(
             DbDumpService service,
-            ProjectService projectService) {
+            ProjectService projectService,
+            ProjectSnapshots snapshots,
+            ObjectMapper mapper) {
         this.service = service;
         this.projectService = projectService;
+        this.snapshots = snapshots;
+        this.mapper = mapper;
     }
 
     @GetMapping("/{projectId}/awsDbInstances/{side}/{component}")
@@ -43,9 +58,27 @@ public class DbDumpProjectController {
         return ResponseEntity.ok(service.getAwsDbInstances(projectService.findOne(projectId), side, component));
     }
 
+    /**
+     * Streams the databases as they are described.
+     */
+    @GetMapping("/{projectId}/awsDbInstances/{side}/{component}/stream")
+    ResponseEntity<StreamingResponseBody> streamAwsDbInstances(
+            @PathVariable String projectId,
+            @PathVariable Side side,
+            @PathVariable Component component) {
+        final var project = projectService.findOne(projectId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new JsonArrayStream<AwsDbInstance>(mapper,
+                        consumer -> service.forEachAwsDbInstance(project, side, component, consumer)));
+    }
+
     @GetMapping("/{projectId}/awsDbDumpItems")
-    ResponseEntity<AwsDbDumpItem[]> getAwsDbDumpItems(@PathVariable String projectId) {
-        return ResponseEntity.ok(service.getAwsDbInstanceItems(projectService.findOne(projectId)));
+    ResponseEntity<AwsDbDumpItem[]> getAwsDbDumpItems(
+            @PathVariable String projectId,
+            WebRequest request) {
+        return snapshots.get(request, "awsDbDumpItems", projectId,
+                () -> service.getAwsDbInstanceItems(projectService.findOne(projectId)));
     }
 
     @PutMapping("/{projectId}/items")
@@ -56,6 +89,16 @@ public class DbDumpProjectController {
         return ResponseEntity.accepted().body(Response.SUCCESS);
     }
 
+    /**
+     * Adds the valid items at once, reporting what became of each.
+     */
+    @PutMapping("/{projectId}/items/bulk")
+    ResponseEntity<ItemOutcome[]> addBulkItems(
+            @PathVariable String projectId,
+            @RequestBody ManageDbDumpItemsRequest request) {
+        return ResponseEntity.ok(service.addItems(projectService.findOne(projectId), request.getItems()));
+    }
+
     @DeleteMapping("/{projectId}/items")
     ResponseEntity<Response> deleteItems(
             @PathVariable String projectId,
@@ -64,11 +107,18 @@ public class DbDumpProjectController {
         return ResponseEntity.accepted().body(Response.SUCCESS);
     }
 
+    /**
+     * Answers 202 while the databases are being listed, to be polled until they are.
+     *
+     * @param refresh lists the databases again, rather than those cached.
+     */
     @GetMapping("/{projectId}/instances/{instanceId}/databases")
     ResponseEntity<String[]> getDatabases(
             @PathVariable String projectId,
-            @PathVariable String instanceId) {
-        return ResponseEntity.ok(service.getDatabases(projectService.findOne(projectId), instanceId));
+            @PathVariable String instanceId,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        final var databases = service.getDatabases(projectService.findOne(projectId), instanceId, refresh);
+        return databases == null ? ResponseEntity.accepted().build() : ResponseEntity.ok(databases);
     }
 
     @PutMapping("/{projectId}/items/dump")
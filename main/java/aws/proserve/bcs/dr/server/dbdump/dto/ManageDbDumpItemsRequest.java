@@ -0,0 +1,19 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.dbdump.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+/**
+ * Items to add, each with the passwords of its databases.
+ */
+@JsonSerialize(as = ImmutableManageDbDumpItemsRequest.class)
+@JsonDeserialize(as = ImmutableManageDbDumpItemsRequest.class)
+@Value.Immutable
+public interface ManageDbDumpItemsRequest {
+
+    ManageDbDumpItemRequest[] getItems();
+}
@@ -17,121 +17,218 @@ import aws.proserve.bcs.dr.project.ProjectFinder;
 import aws.proserve.bcs.dr.project.ProjectService;
 import aws.proserve.bcs.dr.project.Region;
 import aws.proserve.bcs.dr.project.Side;
-import aws.proserve.bcs.dr.secret.Credential;
 import aws.proserve.bcs.dr.secret.SecretManager;
 import aws.proserve.bcs.dr.secret.Secrets;
+import aws.proserve.bcs.dr.server.aws.client.AwsClientRegistry;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCache;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCacheManager;
+import aws.proserve.bcs.dr.server.cache.service.Caches;
 import aws.proserve.bcs.dr.server.dbdump.dto.CreateDbDumpProjectRequest;
 import aws.proserve.bcs.dr.server.dbdump.dto.ManageDbDumpItemRequest;
 import aws.proserve.bcs.dr.server.dbdump.service.machine.DbDumpMySqlGetDatabasesMachine;
+import aws.proserve.bcs.dr.server.machine.service.ExecutionTracker;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
+import aws.proserve.bcs.dr.server.project.service.ItemValidator;
+import aws.proserve.bcs.dr.server.project.service.ProjectCache;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
 import com.amazonaws.jmespath.ObjectMapperSingleton;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.rds.AmazonRDS;
-import com.amazonaws.services.rds.AmazonRDSClientBuilder;
 import com.amazonaws.services.rds.model.DBInstance;
+import com.amazonaws.services.rds.model.DBInstanceNotFoundException;
 import com.amazonaws.services.rds.model.DescribeDBInstancesRequest;
 import com.amazonaws.services.rds.model.DescribeDBInstancesResult;
+import com.amazonaws.services.rds.model.Filter;
 import com.amazonaws.services.rds.model.Subnet;
 import com.amazonaws.services.rds.model.VpcSecurityGroupMembership;
-import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Named
 public class DbDumpService implements ProjectService {
+
+    /**
+     * The most values of a filter of <code>DescribeDBInstances</code>.
+     */
+    private static final int MAX_FILTER_VALUES = 100;
+
+    /**
+     * Status of a database referenced by an item but not found in its region.
+     */
+    static final String NOT_FOUND = "not-found";
+
+    /**
+     * How long a failed listing is answered from the cache before the databases are listed again.
+     */
+    private static final long FAILED_LISTING_MILLIS = 30_000;
+
+    /**
+     * Engines of the databases of each component.
+     */
+    private static final Map<Component, List<String>> ENGINES = Map.of(
+            Component.DbDumpMySql, List.of("mysql", "mariadb", "aurora-mysql"));
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final AwsClientRegistry clients;
     private final ProjectFinder projectFinder;
+    private final ProjectCache projectCache;
+    private final ProjectItemWriter itemWriter;
     private final SecretManager secretManager;
     private final DbDumpMySqlGetDatabasesMachine getDatabasesMachine;
+    private final ExecutionTracker tracker;
+    private final BoundedCache databaseCache;
+    private final ItemValidator itemValidator;
+    private final ExecutorService executor;
 
     DbDumpService(
-            ProjectFinder projectFinder, SecretManager secretManager,
-            DbDumpMySqlGetDatabasesMachine getDatabasesMachine) {
+            AwsClientRegistry clients,
+            ProjectFinder projectFinder, ProjectCache projectCache,
+            ProjectItemWriter itemWriter, SecretManager secretManager,
+            DbDumpMySqlGetDatabasesMachine getDatabasesMachine,
+            ExecutionTracker tracker,
+            BoundedCacheManager cacheManager,
+            ItemValidator itemValidator,
+            @Named("inventoryExecutor") ExecutorService executor) {
+        this.clients = clients;
         this.projectFinder = projectFinder;
+        this.projectCache = projectCache;
+        this.itemWriter = itemWriter;
         this.secretManager = secretManager;
         this.getDatabasesMachine = getDatabasesMachine;
+        this.tracker = tracker;
+        this.databaseCache = cacheManager.getCache(Caches.DATABASES);
+        this.itemValidator = itemValidator;
+        this.executor = executor;
     }
 
     public AwsDbInstance[] getAwsDbInstances(Project project, Side side, Component component) {
-        return getAwsDbInstances(component,
-                AmazonRDSClientBuilder.standard()
-                        .withRegion(project.getRegion(side).toAwsRegion())
-                        .withCredentials(Credential.toProvider(secretManager.getCredential(project, side)))
-                        .build());
+        final var instances = new ArrayList<AwsDbInstance>();
+        forEachAwsDbInstance(project, side, component, instances::add);
+        return instances.toArray(AwsDbInstance[]::new);
     }
 
-    private Map<String, AwsDbInstance> getAwsDbInstanceMap(Project project, Side side) {
-        return Stream.of(getAwsDbInstances(project, side, project.getType()))
-                .collect(Collectors.toMap(AwsDbInstance::getId, i -> i));
+    /**
+     * Passes on the databases of the component page by page, as they are described.
+     */
+    public void forEachAwsDbInstance(
+            Project project, Side side, Component component, Consumer<AwsDbInstance> consumer) {
+        forEachAwsDbInstance(component, clients.rds(
+                project.getRegion(side).getName(),
+                secretManager.getCredential(project, side)), consumer);
     }
 
-    private AwsDbInstance[] getAwsDbInstances(Component component, AmazonRDS rds) {
-        final Predicate<DBInstance> filter = i -> {
-            switch (component) {
-                case DbDumpMySql:
-                    return i.getEngine().contains("mysql") || i.getEngine().contains("mariadb");
+    /**
+     * Describes only the given databases, those not found are mapped to a placeholder of status
+     * {@value #NOT_FOUND}.
+     */
+    private Map<String, AwsDbInstance> getAwsDbInstanceMap(Project project, Side side, Set<String> ids) {
+        final var rds = clients.rds(project.getRegion(side).getName(), secretManager.getCredential(project, side));
+        final var map = new HashMap<String, AwsDbInstance>();
+        final var idList = new ArrayList<>(ids);
+        for (int i = 0; i < idList.size(); i += MAX_FILTER_VALUES) {
+            final var request = new DescribeDBInstancesRequest().withFilters(new Filter()
+                    .withName("db-instance-id")
+                    .withValues(idList.subList(i, Math.min(i + MAX_FILTER_VALUES, idList.size()))));
+            forEachAwsDbInstance(project.getType(), rds, request, instance -> map.put(instance.getId(), instance));
+        }
 
-                default:
-                    return false;
-            }
-        };
+        ids.forEach(id -> map.computeIfAbsent(id, DbDumpService::notFound));
+        return map;
+    }
 
-        final var dbInstances = new ArrayList<DBInstance>();
-        final var request = new DescribeDBInstancesRequest();
+    static void forEachAwsDbInstance(Component component, AmazonRDS rds, Consumer<AwsDbInstance> consumer) {
+        forEachAwsDbInstance(component, rds, new DescribeDBInstancesRequest(), consumer);
+    }
+
+    /**
+     * Describes only the databases of the engines of the component, filtered by RDS.
+     */
+    private static void forEachAwsDbInstance(
+            Component component, AmazonRDS rds, DescribeDBInstancesRequest request,
+            Consumer<AwsDbInstance> consumer) {
+        final var engines = ENGINES.get(component);
+        if (engines == null) {
+            return;
+        }
+
+        request.withFilters(new Filter().withName("engine").withValues(engines));
         DescribeDBInstancesResult result;
         do {
             result = rds.describeDBInstances(request);
-            dbInstances.addAll(result.getDBInstances().stream()
-                    .filter(filter)
-                    .collect(Collectors.toList()));
+            result.getDBInstances().stream()
+                    .map(DbDumpService::convert)
+                    .forEach(consumer);
 
             request.setMarker(result.getMarker());
         } while (result.getMarker() != null);
+    }
 
-        return dbInstances.stream()
-                .map(db -> ImmutableAwsDbInstance.builder()
-                        .dBInstanceIdentifier(db.getDBInstanceIdentifier())
-                        .name(db.getDBName() == null ? "" : db.getDBName())
-                        .engine(db.getEngine())
-                        .engineVersion(db.getEngineVersion())
-                        .instanceClass(db.getDBInstanceClass())
-                        .instanceStatus(db.getDBInstanceStatus())
-                        .masterUsername(db.getMasterUsername())
-                        .multiAZ(db.isMultiAZ())
-                        .endpoint(ImmutableAwsDbEndpoint.builder()
-                                .address(db.getEndpoint().getAddress())
-                                .port(db.getEndpoint().getPort())
-                                .build())
-                        .subnetIds(db.getDBSubnetGroup().getSubnets().stream()
-                                .map(Subnet::getSubnetIdentifier)
-                                .toArray(String[]::new))
-                        .securityGroupIds(db.getVpcSecurityGroups().stream()
-                                .map(VpcSecurityGroupMembership::getVpcSecurityGroupId)
-                                .toArray(String[]::new))
+    static AwsDbInstance convert(DBInstance db) {
+        return ImmutableAwsDbInstance.builder()
+                .dBInstanceIdentifier(db.getDBInstanceIdentifier())
+                .name(db.getDBName() == null ? "" : db.getDBName())
+                .engine(db.getEngine())
+                .engineVersion(db.getEngineVersion())
+                .instanceClass(db.getDBInstanceClass())
+                .instanceStatus(db.getDBInstanceStatus())
+                .masterUsername(db.getMasterUsername())
+                .multiAZ(db.isMultiAZ())
+                .endpoint(ImmutableAwsDbEndpoint.builder()
+                        .address(db.getEndpoint().getAddress())
+                        .port(db.getEndpoint().getPort())
                         .build())
-                .toArray(AwsDbInstance[]::new);
+                .subnetIds(db.getDBSubnetGroup().getSubnets().stream()
+                        .map(Subnet::getSubnetIdentifier)
+                        .toArray(String[]::new))
+                .securityGroupIds(db.getVpcSecurityGroups().stream()
+                        .map(VpcSecurityGroupMembership::getVpcSecurityGroupId)
+                        .toArray(String[]::new))
+                .build();
+    }
+
+    static AwsDbInstance notFound(String id) {
+        return ImmutableAwsDbInstance.builder()
+                .dBInstanceIdentifier(id)
+                .name("")
+                .engine("")
+                .engineVersion("")
+                .instanceClass("")
+                .instanceStatus(NOT_FOUND)
+                .masterUsername("")
+                .multiAZ(false)
+                .endpoint(ImmutableAwsDbEndpoint.builder()
+                        .address("")
+                        .port(0)
+                        .build())
+                .subnetIds(new String[0])
+                .securityGroupIds(new String[0])
+                .build();
     }
 
     private boolean checkRegion(Project project, String id, boolean source) {
         final AmazonRDS rds;
         if (source) {
-            rds = AmazonRDSClientBuilder.standard()
-                    .withRegion(project.getSourceRegion().toAwsRegion())
-                    .withCredentials(Credential.toProvider(secretManager.getCredential(project)))
-                    .build();
+            rds = clients.rds(project.getSourceRegion().getName(), secretManager.getCredential(project));
         } else {
-            rds = AmazonRDSClientBuilder.standard()
-                    .withRegion(project.getTargetRegion().toAwsRegion())
-                    .build();
+            rds = clients.rds(project.getTargetRegion().getName(), null);
         }
 
         try {
@@ -143,10 +240,35 @@ public class DbDumpService implements ProjectService {
         }
     }
 
+    /**
+     * Describes the databases of the items, the source side on the inventory executor while the target side is
+     * described by the calling thread.
+     */
     public AwsDbDumpItem[] getAwsDbInstanceItems(Project project) {
-        final var sourceMap = getAwsDbInstanceMap(project, Side.source);
-        final var targetMap = getAwsDbInstanceMap(project, Side.target);
+        final var items = project.getDbDumpProject().getItems();
+        final var sourceIds = ids(items, DbDumpItem::getSource);
+        final var targetIds = ids(items, DbDumpItem::getTarget);
+        final var sourceMap = CompletableFuture.supplyAsync(
+                () -> getAwsDbInstanceMap(project, Side.source, sourceIds), executor);
+        final var targetMap = getAwsDbInstanceMap(project, Side.target, targetIds);
+        try {
+            return toItems(project, sourceMap.join(), targetMap);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
 
+    private static Set<String> ids(List<DbDumpItem> items, Function<DbDumpItem, String> id) {
+        return items.stream()
+                .map(id)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Joins the items of the project with their databases.
+     */
+    static AwsDbDumpItem[] toItems(
+            Project project, Map<String, AwsDbInstance> sourceMap, Map<String, AwsDbInstance> targetMap) {
         return project.getDbDumpProject().getItems()
                 .stream()
                 .map(item -> ImmutableAwsDbDumpItem.builder()
@@ -172,6 +294,7 @@ public class DbDumpService implements ProjectService {
 
         log.debug("Save DB dump project [{}]", project.getName());
         projectFinder.save(project, request.getSourceCredential());
+        projectCache.evict(project.getId());
     }
 
     @Override
@@ -192,6 +315,43 @@ public class DbDumpService implements ProjectService {
             }
         }
 
+        checkItem(project, item);
+        items.add(item);
+        itemWriter.append(project, Section.DB_DUMP, List.of(item));
+        saveSecrets(project, request);
+    }
+
+    /**
+     * Adds the items that are valid in a single write, then saves the passwords of their databases.
+     */
+    public ItemOutcome[] addItems(Project project, ManageDbDumpItemRequest[] requests) {
+        log.info("Add {} DB dump items to project {}", requests.length, project.getName());
+
+        final var requested = new IdentityHashMap<DbDumpItem, ManageDbDumpItemRequest>();
+        final var candidates = new ArrayList<DbDumpItem>();
+        for (var request : requests) {
+            requested.put(request.getItem(), request);
+            candidates.add(request.getItem());
+        }
+
+        final var items = project.getDbDumpProject().getItems();
+        final var batch = itemValidator.validate(items, candidates, DbDumpItem::getId,
+                item -> checkItem(project, item));
+        final var accepted = batch.getAccepted();
+        items.addAll(accepted);
+        itemWriter.append(project, Section.DB_DUMP, accepted);
+        for (var item : accepted) {
+            try {
+                saveSecrets(project, requested.get(item));
+            } catch (RuntimeException e) {
+                log.warn("Unable to save passwords of item " + item.getId(), e);
+                batch.fail(item, "已添加，但无法保存数据库密码：" + e.getLocalizedMessage());
+            }
+        }
+        return batch.toOutcomes(DbDumpItem::getId);
+    }
+
+    private void checkItem(Project project, DbDumpItem item) {
         if (!checkRegion(project, item.getSource(), true)) {
             throw new PortalException("源数据库所属区域不是 " + project.getSourceRegion());
         }
@@ -199,16 +359,15 @@ public class DbDumpService implements ProjectService {
         if (!checkRegion(project, item.getTarget(), false)) {
             throw new PortalException("目的数据库所属区域不是 " + project.getTargetRegion());
         }
+    }
 
-        items.add(item);
-        projectFinder.save(project);
+    private void saveSecrets(Project project, ManageDbDumpItemRequest request) {
+        final var item = request.getItem();
         secretManager.saveSecret(Secrets.idOfDb(project.getId(), Side.source, item.getSource()), request.getSourcePassword());
         secretManager.saveSecret(Secrets.idOfDb(project.getId(), Side.target, item.getTarget()), request.getTargetPassword());
 
-        final var sourceClient = AWSSecretsManagerClientBuilder.standard()
-                .withRegion(project.getSourceRegion().toAwsRegion())
-                .withCredentials(Credential.toProvider(secretManager.getCredential(project)))
-                .build();
+        final var sourceClient = clients.secretsManager(
+                project.getSourceRegion().getName(), secretManager.getCredential(project));
         final var sourceManager = new SecretManager(sourceClient, ObjectMapperSingleton.getObjectMapper());
         sourceManager.saveSecret(Secrets.idOfDb(project.getId(), Side.source, item.getSource()), request.getSourcePassword());
     }
@@ -216,22 +375,96 @@ public class DbDumpService implements ProjectService {
     public void deleteItems(Project project, String[] keys) {
         log.info("Delete {} DB dump items from project {}", keys.length, project.getName());
 
-        final var sourceClient = AWSSecretsManagerClientBuilder.standard()
-                .withRegion(project.getSourceRegion().toAwsRegion())
-                .withCredentials(Credential.toProvider(secretManager.getCredential(project)))
-                .build();
+        final var sourceClient = clients.secretsManager(
+                project.getSourceRegion().getName(), secretManager.getCredential(project));
         final var sourceManager = new SecretManager(sourceClient, ObjectMapperSingleton.getObjectMapper());
         final var keySet = Set.of(keys);
+        itemWriter.remove(project, Section.DB_DUMP, project.getDbDumpProject().getItems().stream()
+                .filter(item -> keySet.contains(item.getId()))
+                .collect(Collectors.toList()));
         project.getDbDumpProject().getItems().removeIf(item -> {
             sourceManager.deleteSecret(Secrets.idOfDb(project.getId(), Side.source, item.getSource()));
             return keySet.contains(item.getId());
         });
-        projectFinder.save(project);
     }
 
-    public String[] getDatabases(Project project, String instanceId) {
-        final var sourceMap = getAwsDbInstanceMap(project, Side.source);
-        return getDatabasesMachine.getDatabases(project, instanceId, sourceMap.get(instanceId));
+    /**
+     * Lists the databases of a source instance once, by an execution whose result is cached.
+     *
+     * @param refresh lists them again, even if cached.
+     * @return the databases, or <code>null</code> while they are being listed.
+     * @throws PortalException if the listing failed in the last 30 seconds, unless it is refreshed.
+     */
+    public String[] getDatabases(Project project, String instanceId, boolean refresh) {
+        final var key = project.getId() + "/" + instanceId;
+        final Listing listing;
+        var started = false;
+        synchronized (databaseCache) {
+            final var cached = refresh ? null : databaseCache.get(key, Listing.class);
+            if (cached != null && !cached.isStale()) {
+                listing = cached;
+            } else {
+                listing = new Listing();
+                databaseCache.put(key, listing);
+                started = true;
+            }
+        }
+
+        if (started) {
+            try {
+                startListing(project, instanceId, key, listing);
+            } catch (RuntimeException e) {
+                synchronized (databaseCache) {
+                    if (databaseCache.get(key, Listing.class) == listing) {
+                        databaseCache.evict(key);
+                    }
+                }
+                throw e;
+            }
+        }
+
+        if (listing.failed) {
+            throw new PortalException("无法获取数据库实例 " + instanceId + " 的数据库列表，请稍后重试或刷新");
+        }
+        return listing.databases;
+    }
+
+    private void startListing(Project project, String instanceId, String key, Listing listing) {
+        final var executionArn = getDatabasesMachine.start(
+                project, instanceId, getAwsDbInstance(project, Side.source, instanceId));
+        tracker.track(executionArn,
+                result -> {
+                    final var databases = getDatabasesMachine.parse(result.getOutput());
+                    if (databases == null) {
+                        listing.fail();
+                        return;
+                    }
+
+                    listing.databases = databases;
+                    synchronized (databaseCache) {
+                        if (databaseCache.get(key, Listing.class) == listing) {
+                            databaseCache.put(key, listing);
+                        }
+                    }
+                },
+                result -> listing.fail());
+    }
+
+    /**
+     * Describes a single database, rather than all of the region.
+     */
+    private AwsDbInstance getAwsDbInstance(Project project, Side side, String instanceId) {
+        final var rds = clients.rds(project.getRegion(side).getName(), secretManager.getCredential(project, side));
+        try {
+            return rds.describeDBInstances(new DescribeDBInstancesRequest().withDBInstanceIdentifier(instanceId))
+                    .getDBInstances()
+                    .stream()
+                    .findFirst()
+                    .map(DbDumpService::convert)
+                    .orElseThrow(() -> new PortalException("找不到数据库实例 " + instanceId));
+        } catch (DBInstanceNotFoundException e) {
+            throw new PortalException("找不到数据库实例 " + instanceId);
+        }
     }
 
     public void dumpItem(Project project, DbDumpItem item) {
@@ -243,4 +476,22 @@ public class DbDumpService implements ProjectService {
         log.info("Restore item {} of project {}", item.getId(), project.getName());
         project.getDbDumpProject().find(item.getId());
     }
+
+    /**
+     * The databases of an instance, once its execution succeeds.
+     */
+    private static final class Listing {
+        private volatile String[] databases;
+        private volatile boolean failed;
+        private volatile long failedAt;
+
+        private void fail() {
+            failedAt = System.currentTimeMillis();
+            failed = true;
+        }
+
+        private boolean isStale() {
+            return failed && System.currentTimeMillis() - failedAt > FAILED_LISTING_MILLIS;
+        }
+    }
 }
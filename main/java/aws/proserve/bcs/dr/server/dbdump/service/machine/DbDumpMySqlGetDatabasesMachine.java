@@ -4,7 +4,6 @@
 package aws.proserve.bcs.dr.server.dbdump.service.machine;
 
 import aws.proserve.bcs.dr.aws.AwsDbInstance;
-import aws.proserve.bcs.dr.dbdump.DbDumpItem;
 import aws.proserve.bcs.dr.exception.PortalException;
 import aws.proserve.bcs.dr.machine.AbstractStateMachine;
 import aws.proserve.bcs.dr.project.Project;
@@ -26,16 +25,21 @@ public class DbDumpMySqlGetDatabasesMachine extends AbstractStateMachine {
         super(machine, mapper);
     }
 
-    public String[] getDatabases(Project project, String instanceId, AwsDbInstance dbInstance) {
+    /**
+     * Starts listing the databases of the instance, see {@link #parse(String)} for the output of the execution.
+     *
+     * @return the ARN of the execution.
+     */
+    public String start(Project project, String instanceId, AwsDbInstance dbInstance) {
         log.info("Get databases of {} at {} ", instanceId, project.getSourceRegion());
 
-        final DbDumpItem item = project.getDbDumpProject().getItems()
+        project.getDbDumpProject().getItems()
                 .stream()
                 .filter(i -> i.getSource().equals(instanceId))
                 .findFirst()
                 .orElseThrow(() -> new PortalException("Unable to find DB instance " + instanceId));
 
-        final var output = execute(ImmutableMySqlGetDatabasesRequest.builder()
+        return executeAsync(ImmutableMySqlGetDatabasesRequest.builder()
                 .region(project.getSourceRegion().getName())
                 .dbId(dbInstance.getDBInstanceIdentifier())
                 .projectId(project.getId())
@@ -47,7 +51,16 @@ public class DbDumpMySqlGetDatabasesMachine extends AbstractStateMachine {
                         .username(dbInstance.getMasterUsername())
                         .build())
                 .build());
+    }
+
+    /**
+     * @return the databases listed by an execution, or <code>null</code> if its output cannot be parsed.
+     */
+    public String[] parse(String output) {
         log.debug("GetDatabases output  {}", output);
+        if (output == null) {
+            return null;
+        }
 
         try {
             final List<String> databases = mapper.readValue(output, List.class);
@@ -10,9 +10,17 @@ import aws.proserve.bcs.dr.dbreplica.AwsDbReplicaItem;
 import aws.proserve.bcs.dr.dto.Response;
 import aws.proserve.bcs.dr.dto.request.DeleteItemsRequest;
 import aws.proserve.bcs.dr.project.Side;
+import aws.proserve.bcs.dr.server.aws.api.JsonArrayStream;
+import aws.proserve.bcs.dr.server.dbreplica.dto.AwsInstanceFilter;
+import aws.proserve.bcs.dr.server.dbreplica.dto.ImmutableAwsInstanceFilter;
 import aws.proserve.bcs.dr.server.dbreplica.dto.ManageDbReplicaItemRequest;
+import aws.proserve.bcs.dr.server.dbreplica.dto.ManageDbReplicaItemsRequest;
 import aws.proserve.bcs.dr.server.dbreplica.service.DbReplicaService;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
 import aws.proserve.bcs.dr.server.project.service.ProjectService;
+import aws.proserve.bcs.dr.server.project.service.ProjectSnapshots;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,7 +28,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/dbreplica/projects")
@@ -28,24 +39,66 @@ public class DbReplicaProjectController {
 
     private final DbReplicaService service;
     private final ProjectService projectService;
+    private final ProjectSnapshots snapshots;
+    private final ObjectMapper mapper;
 
     DbReplicaProjectController(
             DbReplicaService service,
-            ProjectService projectService) {
+            ProjectService projectService,
+            ProjectSnapshots snapshots,
+            ObjectMapper mapper) {
         this.service = service;
         this.projectService = projectService;
+        this.snapshots = snapshots;
+        this.mapper = mapper;
     }
 
+    /**
+     * @param tag <code>key</code> or <code>key=value</code>.
+     */
     @GetMapping("/{projectId}/awsInstances/{side}")
     ResponseEntity<AwsInstance[]> getAwsInstances(
             @PathVariable String projectId,
-            @PathVariable Side side) {
-        return ResponseEntity.ok(service.getAwsInstances(projectService.findOne(projectId), side));
+            @PathVariable Side side,
+            @RequestParam(required = false) String vpcId,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String namePrefix) {
+        return ResponseEntity.ok(service.getAwsInstances(projectService.findOne(projectId), side,
+                filter(vpcId, tag, namePrefix)));
+    }
+
+    /**
+     * Streams the instances as they are described, filtered like {@link #getAwsInstances}.
+     */
+    @GetMapping("/{projectId}/awsInstances/{side}/stream")
+    ResponseEntity<StreamingResponseBody> streamAwsInstances(
+            @PathVariable String projectId,
+            @PathVariable Side side,
+            @RequestParam(required = false) String vpcId,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String namePrefix) {
+        final var project = projectService.findOne(projectId);
+        final var filter = filter(vpcId, tag, namePrefix);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new JsonArrayStream<AwsInstance>(mapper,
+                        consumer -> service.forEachAwsInstance(project, side, filter, consumer)));
+    }
+
+    private static AwsInstanceFilter filter(String vpcId, String tag, String namePrefix) {
+        return ImmutableAwsInstanceFilter.builder()
+                .vpcId(vpcId)
+                .tag(tag)
+                .namePrefix(namePrefix)
+                .build();
     }
 
     @GetMapping("/{projectId}/awsDbReplicaEc2Items")
-    ResponseEntity<AwsDbReplicaEc2Item[]> getAwsDbReplicaEc2Items(@PathVariable String projectId) {
-        return ResponseEntity.ok(service.getAwsDbReplicaEc2Items(projectService.findOne(projectId)));
+    ResponseEntity<AwsDbReplicaEc2Item[]> getAwsDbReplicaEc2Items(
+            @PathVariable String projectId,
+            WebRequest request) {
+        return snapshots.get(request, "awsDbReplicaEc2Items", projectId,
+                () -> service.getAwsDbReplicaEc2Items(projectService.findOne(projectId)));
     }
 
     @PutMapping("/{projectId}/items")
@@ -56,6 +109,16 @@ public class DbReplicaProjectController {
         return ResponseEntity.accepted().body(Response.SUCCESS);
     }
 
+    /**
+     * Adds the valid items at once, reporting what became of each.
+     */
+    @PutMapping("/{projectId}/items/bulk")
+    ResponseEntity<ItemOutcome[]> addBulkItems(
+            @PathVariable String projectId,
+            @RequestBody ManageDbReplicaItemsRequest request) {
+        return ResponseEntity.ok(service.addItems(projectService.findOne(projectId), request.getItems()));
+    }
+
     @DeleteMapping("/{projectId}/items")
     ResponseEntity<Response> deleteItems(
             @PathVariable String projectId,
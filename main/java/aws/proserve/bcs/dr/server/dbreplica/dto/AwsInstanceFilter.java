@@ -0,0 +1,35 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.dbreplica.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Narrows the instances listed by a picker, each criterion being left out when <code>null</code>.
+ */
+@JsonSerialize(as = ImmutableAwsInstanceFilter.class)
+@JsonDeserialize(as = ImmutableAwsInstanceFilter.class)
+@Value.Immutable
+public interface AwsInstanceFilter {
+
+    @Nullable
+    String getVpcId();
+
+    /**
+     * @return <code>key</code> for instances having the tag, or <code>key=value</code> for those having it set to the
+     * value.
+     */
+    @Nullable
+    String getTag();
+
+    /**
+     * @return the start of the <code>Name</code> tag.
+     */
+    @Nullable
+    String getNamePrefix();
+}
@@ -0,0 +1,22 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.dbreplica.dto;
+
+import aws.proserve.bcs.dr.dto.request.ManageItemsRequest;
+import aws.proserve.bcs.dr.dbreplica.DbReplicaItem;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+@JsonSerialize(as = ImmutableManageDbReplicaItemsRequest.class)
+@JsonDeserialize(as = ImmutableManageDbReplicaItemsRequest.class)
+@Value.Immutable
+public interface ManageDbReplicaItemsRequest extends ManageItemsRequest<DbReplicaItem> {
+
+    /**
+     * @apiNote non-reified array is not supported.
+     */
+    @Override
+    DbReplicaItem[] getItems();
+}
@@ -5,6 +5,7 @@ package aws.proserve.bcs.dr.server.dbreplica.service;
 
 import aws.proserve.bcs.ce.service.CloudEndureInstanceService;
 import aws.proserve.bcs.dr.aws.AwsInstance;
+import aws.proserve.bcs.dr.aws.ImmutableAwsInstance;
 import aws.proserve.bcs.dr.dbreplica.AwsDbReplicaEc2Item;
 import aws.proserve.bcs.dr.dbreplica.DbReplicaItem;
 import aws.proserve.bcs.dr.dbreplica.DbReplicaProject;
@@ -16,95 +17,237 @@ import aws.proserve.bcs.dr.project.ProjectFinder;
 import aws.proserve.bcs.dr.project.ProjectService;
 import aws.proserve.bcs.dr.project.Region;
 import aws.proserve.bcs.dr.project.Side;
-import aws.proserve.bcs.dr.secret.Credential;
 import aws.proserve.bcs.dr.secret.SecretManager;
+import aws.proserve.bcs.dr.server.aws.client.AwsClientRegistry;
+import aws.proserve.bcs.dr.server.aws.client.IamLookupCache;
+import aws.proserve.bcs.dr.server.dbreplica.dto.AwsInstanceFilter;
 import aws.proserve.bcs.dr.server.dbreplica.dto.CreateDbReplicaProjectRequest;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
+import aws.proserve.bcs.dr.server.project.service.ItemValidator;
+import aws.proserve.bcs.dr.server.project.service.ProjectCache;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.ec2.AmazonEC2;
-import com.amazonaws.services.ec2.AmazonEC2ClientBuilder;
 import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
 import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
-import com.amazonaws.services.identitymanagement.AmazonIdentityManagementClientBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Named
 public class DbReplicaService implements ProjectService {
+
+    /**
+     * The most values of a filter of <code>DescribeInstances</code>.
+     */
+    private static final int MAX_FILTER_VALUES = 200;
+
+    /**
+     * The instances of a page of <code>DescribeInstances</code>.
+     */
+    private static final int PAGE_SIZE = 200;
+
+    /**
+     * The most instances of a request being qualified at a time, so that a large region does not take over the
+     * inventory executor.
+     */
+    private static final int QUALIFY_PARALLELISM = 4;
+
+    /**
+     * State of an instance referenced by an item but not found in its region.
+     */
+    static final String NOT_FOUND = "not-found";
+
+    /**
+     * States of the instances listed by a picker, terminated ones being left out.
+     */
+    private static final List<String> LIVE_STATES = List.of("pending", "running", "stopping", "stopped");
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final AwsClientRegistry clients;
     private final CloudEndureInstanceService instanceService;
     private final ProjectFinder projectFinder;
+    private final ProjectCache projectCache;
+    private final ProjectItemWriter itemWriter;
     private final SecretManager secretManager;
+    private final IamLookupCache iamLookups;
+    private final ItemValidator itemValidator;
+    private final ExecutorService executor;
 
     DbReplicaService(
+            AwsClientRegistry clients,
             CloudEndureInstanceService instanceService,
             ProjectFinder projectFinder,
-            SecretManager secretManager) {
+            ProjectCache projectCache,
+            ProjectItemWriter itemWriter,
+            SecretManager secretManager,
+            IamLookupCache iamLookups,
+            ItemValidator itemValidator,
+            @Named("inventoryExecutor") ExecutorService executor) {
+        this.clients = clients;
         this.instanceService = instanceService;
         this.projectFinder = projectFinder;
+        this.projectCache = projectCache;
+        this.itemWriter = itemWriter;
         this.secretManager = secretManager;
+        this.iamLookups = iamLookups;
+        this.itemValidator = itemValidator;
+        this.executor = executor;
     }
 
-    public AwsInstance[] getAwsInstances(Project project, Side side) {
-        final var credential = Credential.toProvider(secretManager.getCredential(project, side));
-        return getAwsInstances(
-                AmazonEC2ClientBuilder.standard()
-                        .withRegion(project.getRegion(side).toAwsRegion())
-                        .withCredentials(credential)
-                        .build(),
-                AmazonIdentityManagementClientBuilder.standard()
-                        .withRegion(project.getRegion(side).toAwsRegion())
-                        .withCredentials(credential)
-                        .build());
+    public AwsInstance[] getAwsInstances(Project project, Side side, AwsInstanceFilter filter) {
+        final var instances = new ArrayList<AwsInstance>();
+        forEachAwsInstance(project, side, filter, instances::add);
+        return instances.toArray(AwsInstance[]::new);
     }
 
-    private Map<String, AwsInstance> getAwsInstanceMap(Project project, Side side) {
-        return Stream.of(getAwsInstances(project, side))
-                .collect(Collectors.toMap(AwsInstance::getId, i -> i));
+    /**
+     * Passes on the qualified instances page by page, as they are described and qualified.
+     */
+    public void forEachAwsInstance(
+            Project project, Side side, AwsInstanceFilter filter, Consumer<AwsInstance> consumer) {
+        final var region = project.getRegion(side).getName();
+        final var credential = secretManager.getCredential(project, side);
+        forEachAwsInstance(clients.ec2(region, credential), clients.iam(region, credential), describe(filter),
+                executor, id -> {
+                }, consumer);
     }
 
-    private AwsInstance[] getAwsInstances(AmazonEC2 ec2, AmazonIdentityManagement iam) {
-        final var instances = new ArrayList<AwsInstance>();
-        final var request = new DescribeInstancesRequest();
+    /**
+     * Filters by EC2 the instances that can be replicated, and those matching the criteria of the filter.
+     */
+    private static DescribeInstancesRequest describe(AwsInstanceFilter filter) {
+        final var request = new DescribeInstancesRequest()
+                .withMaxResults(PAGE_SIZE)
+                .withFilters(new Filter()
+                        .withName("instance-state-name")
+                        .withValues(LIVE_STATES));
+        if (filter.getVpcId() != null) {
+            request.withFilters(new Filter().withName("vpc-id").withValues(filter.getVpcId()));
+        }
+        if (filter.getTag() != null) {
+            final var tag = filter.getTag().split("=", 2);
+            request.withFilters(tag.length == 1
+                    ? new Filter().withName("tag-key").withValues(tag[0])
+                    : new Filter().withName("tag:" + tag[0]).withValues(tag[1]));
+        }
+        if (filter.getNamePrefix() != null) {
+            request.withFilters(new Filter().withName("tag:Name").withValues(filter.getNamePrefix() + "*"));
+        }
+        return request;
+    }
+
+    /**
+     * Describes only the given instances, those not found are mapped to a placeholder of state {@value #NOT_FOUND},
+     * while those found but not qualified are left out.
+     * <p>
+     * They are qualified by the calling thread, which may be one of the inventory executor and must not wait on it.
+     */
+    private Map<String, AwsInstance> getAwsInstanceMap(Project project, Side side, Set<String> ids) {
+        final var region = project.getRegion(side).getName();
+        final var credential = secretManager.getCredential(project, side);
+        final var ec2 = clients.ec2(region, credential);
+        final var iam = clients.iam(region, credential);
+        final var map = new HashMap<String, AwsInstance>();
+        final var found = new HashSet<String>();
+        final var idList = new ArrayList<>(ids);
+        for (int i = 0; i < idList.size(); i += MAX_FILTER_VALUES) {
+            final var request = new DescribeInstancesRequest()
+                    .withMaxResults(PAGE_SIZE)
+                    .withFilters(new Filter()
+                            .withName("instance-id")
+                            .withValues(idList.subList(i, Math.min(i + MAX_FILTER_VALUES, idList.size()))));
+            forEachAwsInstance(ec2, iam, request, Runnable::run, found::add,
+                    instance -> map.put(instance.getId(), instance));
+        }
+
+        ids.stream()
+                .filter(id -> !found.contains(id))
+                .forEach(id -> map.put(id, notFound(id)));
+        return map;
+    }
+
+    /**
+     * Qualifies the instances of a page on the qualifier, at most {@value #QUALIFY_PARALLELISM} at a time and sharing
+     * IAM lookups between instances of the same profile.
+     *
+     * @param found accepts the ID of every instance described, qualified or not.
+     */
+    private void forEachAwsInstance(
+            AmazonEC2 ec2, AmazonIdentityManagement iam, DescribeInstancesRequest request, Executor qualifier,
+            Consumer<String> found, Consumer<AwsInstance> consumer) {
+        final var cachedIam = iamLookups.wrap(iam);
+        final var pending = new ArrayDeque<CompletableFuture<AwsInstance>>(QUALIFY_PARALLELISM);
         DescribeInstancesResult result;
         do {
             result = ec2.describeInstances(request);
-            for (var r : result.getReservations()) {
-                for (var instance : r.getInstances()) {
-                    if (!instanceService.isQualified(instance, null, iam)) {
-                        continue;
+            for (var reservation : result.getReservations()) {
+                for (var instance : reservation.getInstances()) {
+                    found.accept(instance.getInstanceId());
+                    if (pending.size() == QUALIFY_PARALLELISM) {
+                        accept(pending.poll(), consumer);
                     }
-
-                    instances.add(AwsInstance.convert(instance));
+                    pending.add(CompletableFuture.supplyAsync(
+                            () -> instanceService.isQualified(instance, null, cachedIam), qualifier)
+                            .thenApply(q -> q ? AwsInstance.convert(instance) : null));
                 }
             }
+            while (!pending.isEmpty()) {
+                accept(pending.poll(), consumer);
+            }
 
             request.setNextToken(result.getNextToken());
         } while (result.getNextToken() != null);
+    }
 
-        return instances.toArray(AwsInstance[]::new);
+    private static void accept(CompletableFuture<AwsInstance> qualified, Consumer<AwsInstance> consumer) {
+        final var awsInstance = join(qualified);
+        if (awsInstance != null) {
+            consumer.accept(awsInstance);
+        }
+    }
+
+    static AwsInstance notFound(String id) {
+        return ImmutableAwsInstance.builder()
+                .id(id)
+                .name("")
+                .type("")
+                .imageId("")
+                .state(NOT_FOUND)
+                .availabilityZone("")
+                .privateIp("")
+                .vpcId("")
+                .subnetId("")
+                .build();
     }
 
     private boolean checkRegion(Project project, String id, boolean source) {
         final AmazonEC2 ec2;
         if (source) {
-            ec2 = AmazonEC2ClientBuilder.standard()
-                    .withRegion(project.getSourceRegion().toAwsRegion())
-                    .withCredentials(Credential.toProvider(secretManager.getCredential(project)))
-                    .build();
+            ec2 = clients.ec2(project.getSourceRegion().getName(), secretManager.getCredential(project));
         } else {
-            ec2 = AmazonEC2ClientBuilder.standard()
-                    .withRegion(project.getTargetRegion().toAwsRegion())
-                    .build();
+            ec2 = clients.ec2(project.getTargetRegion().getName(), null);
         }
 
         try {
@@ -116,10 +259,39 @@ public class DbReplicaService implements ProjectService {
         }
     }
 
+    /**
+     * Describes the instances of the items, the source side on the inventory executor while the target side is
+     * described by the calling thread.
+     */
     public AwsDbReplicaEc2Item[] getAwsDbReplicaEc2Items(Project project) {
-        final var sourceMap = getAwsInstanceMap(project, Side.source);
-        final var targetMap = getAwsInstanceMap(project, Side.target);
+        final var items = project.getDbReplicaProject().getItems();
+        final var sourceIds = ids(items, DbReplicaItem::getSource);
+        final var targetIds = ids(items, DbReplicaItem::getTarget);
+        final var sourceMap = CompletableFuture.supplyAsync(
+                () -> getAwsInstanceMap(project, Side.source, sourceIds), executor);
+        final var targetMap = getAwsInstanceMap(project, Side.target, targetIds);
+        return toItems(project, join(sourceMap), targetMap);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static Set<String> ids(List<DbReplicaItem> items, Function<DbReplicaItem, String> id) {
+        return items.stream()
+                .map(id)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
 
+    /**
+     * Joins the items of the project with their instances.
+     */
+    static AwsDbReplicaEc2Item[] toItems(
+            Project project, Map<String, AwsInstance> sourceMap, Map<String, AwsInstance> targetMap) {
         return project.getDbReplicaProject().getItems()
                 .stream()
                 .map(item -> ImmutableAwsDbReplicaEc2Item.builder()
@@ -145,6 +317,7 @@ public class DbReplicaService implements ProjectService {
 
         log.debug("Save DB replica project [{}]", project.getName());
         projectFinder.save(project, request.getSourceCredential());
+        projectCache.evict(project.getId());
     }
 
     @Override
@@ -164,6 +337,27 @@ public class DbReplicaService implements ProjectService {
             }
         }
 
+        checkItem(project, item);
+        items.add(item);
+        itemWriter.append(project, Section.DB_REPLICA, List.of(item));
+    }
+
+    /**
+     * Adds the items that are valid in a single write.
+     */
+    public ItemOutcome[] addItems(Project project, DbReplicaItem[] requested) {
+        log.info("Add {} DB replica items to project {}", requested.length, project.getName());
+
+        final var items = project.getDbReplicaProject().getItems();
+        final var batch = itemValidator.validate(items, List.of(requested), DbReplicaItem::getId,
+                item -> checkItem(project, item));
+        final var accepted = batch.getAccepted();
+        items.addAll(accepted);
+        itemWriter.append(project, Section.DB_REPLICA, accepted);
+        return batch.toOutcomes(DbReplicaItem::getId);
+    }
+
+    private void checkItem(Project project, DbReplicaItem item) {
         if (!checkRegion(project, item.getSource(), true)) {
             throw new PortalException("源数据库所属区域不是 " + project.getSourceRegion());
         }
@@ -171,15 +365,15 @@ public class DbReplicaService implements ProjectService {
         if (!checkRegion(project, item.getTarget(), false)) {
             throw new PortalException("目的数据库所属区域不是 " + project.getTargetRegion());
         }
-
-        items.add(item);
-        projectFinder.save(project);
     }
 
     public void deleteItems(Project project, String[] keys) {
         log.info("Delete {} DB replica items from project {}", keys.length, project.getName());
         final var keySet = Set.of(keys);
-        project.getDbReplicaProject().getItems().removeIf(config -> keySet.contains(config.getId()));
-        projectFinder.save(project);
+        final var items = project.getDbReplicaProject().getItems();
+        itemWriter.remove(project, Section.DB_REPLICA, items.stream()
+                .filter(config -> keySet.contains(config.getId()))
+                .collect(Collectors.toList()));
+        items.removeIf(config -> keySet.contains(config.getId()));
     }
 }
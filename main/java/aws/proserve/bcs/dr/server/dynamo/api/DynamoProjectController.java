@@ -8,9 +8,15 @@ import aws.proserve.bcs.dr.dto.Response;
 import aws.proserve.bcs.dr.dto.request.DeleteItemsRequest;
 import aws.proserve.bcs.dr.dynamo.AwsTableItem;
 import aws.proserve.bcs.dr.project.Side;
+import aws.proserve.bcs.dr.server.aws.api.JsonArrayStream;
 import aws.proserve.bcs.dr.server.dynamo.dto.ManageDynamoItemRequest;
+import aws.proserve.bcs.dr.server.dynamo.dto.ManageDynamoItemsRequest;
 import aws.proserve.bcs.dr.server.dynamo.service.DynamoService;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
 import aws.proserve.bcs.dr.server.project.service.ProjectService;
+import aws.proserve.bcs.dr.server.project.service.ProjectSnapshots;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +25,8 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/dynamo/projects")
@@ -26,12 +34,18 @@ class DynamoProjectController {
 
     private final DynamoService service;
     private final ProjectService projectService;
+    private final ProjectSnapshots snapshots;
+    private final ObjectMapper mapper;
 
     DynamoProjectController(
             DynamoService service,
-            ProjectService projectService) {
+            ProjectService projectService,
+            ProjectSnapshots snapshots,
+            ObjectMapper mapper) {
         this.service = service;
         this.projectService = projectService;
+        this.snapshots = snapshots;
+        this.mapper = mapper;
     }
 
     @GetMapping("/{projectId}/awsTables/{side}")
@@ -41,9 +55,26 @@ class DynamoProjectController {
         return ResponseEntity.ok(service.getAwsTables(projectService.findOne(projectId), side));
     }
 
+    /**
+     * Streams the tables as they are listed.
+     */
+    @GetMapping("/{projectId}/awsTables/{side}/stream")
+    ResponseEntity<StreamingResponseBody> streamAwsTables(
+            @PathVariable String projectId,
+            @PathVariable Side side) {
+        final var project = projectService.findOne(projectId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new JsonArrayStream<AwsTable>(mapper,
+                        consumer -> service.forEachAwsTable(project, side, consumer)));
+    }
+
     @GetMapping("/{projectId}/awsTableItems")
-    ResponseEntity<AwsTableItem[]> getAwsTableItems(@PathVariable String projectId) {
-        return ResponseEntity.ok(service.getAwsTableItems(projectService.findOne(projectId)));
+    ResponseEntity<AwsTableItem[]> getAwsTableItems(
+            @PathVariable String projectId,
+            WebRequest request) {
+        return snapshots.get(request, "awsTableItems", projectId,
+                () -> service.getAwsTableItems(projectService.findOne(projectId)));
     }
 
     @PutMapping("/{projectId}/items")
@@ -54,6 +85,16 @@ class DynamoProjectController {
         return ResponseEntity.accepted().body(Response.SUCCESS);
     }
 
+    /**
+     * Adds the valid items at once, reporting what became of each.
+     */
+    @PutMapping("/{projectId}/items/bulk")
+    ResponseEntity<ItemOutcome[]> addBulkItems(
+            @PathVariable String projectId,
+            @RequestBody ManageDynamoItemsRequest request) {
+        return ResponseEntity.ok(service.addItems(projectService.findOne(projectId), request.getItems()));
+    }
+
     @DeleteMapping("/{projectId}/items")
     ResponseEntity<Response> deleteItems(
             @PathVariable String projectId,
@@ -77,4 +118,21 @@ class DynamoProjectController {
         service.stopItem(projectService.findOne(projectId), request.getItem());
         return ResponseEntity.accepted().body(Response.SUCCESS);
     }
+
+    /**
+     * Starts the replication of the items within the Step Functions quota, reporting what became of each.
+     */
+    @PutMapping("/{projectId}/items/bulk/start")
+    ResponseEntity<ItemOutcome[]> startItems(
+            @PathVariable String projectId,
+            @RequestBody ManageDynamoItemsRequest request) {
+        return ResponseEntity.ok(service.startItems(projectService.findOne(projectId), request.getItems()));
+    }
+
+    @PutMapping("/{projectId}/items/bulk/stop")
+    ResponseEntity<ItemOutcome[]> stopItems(
+            @PathVariable String projectId,
+            @RequestBody ManageDynamoItemsRequest request) {
+        return ResponseEntity.ok(service.stopItems(projectService.findOne(projectId), request.getItems()));
+    }
 }
@@ -0,0 +1,22 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.dynamo.dto;
+
+import aws.proserve.bcs.dr.dto.request.ManageItemsRequest;
+import aws.proserve.bcs.dr.dynamo.DynamoItem;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+@JsonSerialize(as = ImmutableManageDynamoItemsRequest.class)
+@JsonDeserialize(as = ImmutableManageDynamoItemsRequest.class)
+@Value.Immutable
+public interface ManageDynamoItemsRequest extends ManageItemsRequest<DynamoItem> {
+
+    /**
+     * @apiNote non-reified array is not supported.
+     */
+    @Override
+    DynamoItem[] getItems();
+}
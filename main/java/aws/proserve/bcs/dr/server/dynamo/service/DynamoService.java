@@ -16,13 +16,20 @@ import aws.proserve.bcs.dr.project.ProjectFinder;
 import aws.proserve.bcs.dr.project.ProjectService;
 import aws.proserve.bcs.dr.project.Region;
 import aws.proserve.bcs.dr.project.Side;
-import aws.proserve.bcs.dr.secret.Credential;
 import aws.proserve.bcs.dr.secret.SecretManager;
+import aws.proserve.bcs.dr.server.aws.client.AwsClientRegistry;
 import aws.proserve.bcs.dr.server.dynamo.dto.CreateDynamoProjectRequest;
 import aws.proserve.bcs.dr.server.dynamo.service.machine.DynamoReplicateTableMachine;
+import aws.proserve.bcs.dr.server.machine.service.ExecutionDispatcher;
+import aws.proserve.bcs.dr.server.machine.service.ExecutionDispatcher.Api;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
+import aws.proserve.bcs.dr.server.project.service.ItemBatch;
+import aws.proserve.bcs.dr.server.project.service.ItemValidator;
+import aws.proserve.bcs.dr.server.project.service.ProjectCache;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.model.ListTablesRequest;
 import com.amazonaws.services.dynamodbv2.model.ListTablesResult;
@@ -32,62 +39,83 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Named;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Named
 public class DynamoService implements ProjectService {
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private final AwsClientRegistry clients;
     private final ProjectFinder projectFinder;
+    private final ProjectCache projectCache;
+    private final ProjectItemWriter itemWriter;
     private final SecretManager secretManager;
     private final DynamoReplicateTableMachine replicateTableMachine;
+    private final ItemValidator itemValidator;
+    private final ExecutionDispatcher dispatcher;
 
     DynamoService(
+            AwsClientRegistry clients,
             ProjectFinder projectFinder,
+            ProjectCache projectCache,
+            ProjectItemWriter itemWriter,
             SecretManager secretManager,
-            DynamoReplicateTableMachine replicateTableMachine) {
+            DynamoReplicateTableMachine replicateTableMachine,
+            ItemValidator itemValidator,
+            ExecutionDispatcher dispatcher) {
+        this.clients = clients;
         this.projectFinder = projectFinder;
+        this.projectCache = projectCache;
+        this.itemWriter = itemWriter;
         this.secretManager = secretManager;
         this.replicateTableMachine = replicateTableMachine;
+        this.itemValidator = itemValidator;
+        this.dispatcher = dispatcher;
     }
 
     public AwsTable[] getAwsTables(Project project, Side side) {
-        return listTables(AmazonDynamoDBClientBuilder.standard()
-                .withRegion(project.getRegion(side).toAwsRegion())
-                .withCredentials(Credential.toProvider(secretManager.getCredential(project, side)))
-                .build());
+        final var tables = new ArrayList<AwsTable>();
+        forEachAwsTable(project, side, tables::add);
+        return tables.toArray(AwsTable[]::new);
     }
 
-    private AwsTable[] listTables(AmazonDynamoDB dynamoDB) {
-        final var tableNames = new ArrayList<String>();
+    /**
+     * Passes on the tables page by page, as they are listed.
+     */
+    public void forEachAwsTable(Project project, Side side, Consumer<AwsTable> consumer) {
+        final var dynamoDB = clients.dynamoDB(
+                project.getRegion(side).getName(),
+                secretManager.getCredential(project, side));
+
         final var request = new ListTablesRequest();
         ListTablesResult result;
         do {
             result = dynamoDB.listTables(request);
-            tableNames.addAll(result.getTableNames());
+            for (var name : result.getTableNames()) {
+                consumer.accept(ImmutableAwsTable.builder()
+                        .id(name)
+                        .name(name)
+                        .build());
+            }
 
             request.setExclusiveStartTableName(result.getLastEvaluatedTableName());
         } while (result.getLastEvaluatedTableName() != null);
-
-        return tableNames.stream()
-                .map(name -> ImmutableAwsTable.builder()
-                        .id(name)
-                        .name(name)
-                        .build())
-                .toArray(AwsTable[]::new);
     }
 
     private boolean checkRegion(Project project, String table, boolean source) {
         final AmazonDynamoDB dynamoDB;
         if (source) {
-            dynamoDB = AmazonDynamoDBClientBuilder.standard()
-                    .withRegion(project.getSourceRegion().toAwsRegion())
-                    .withCredentials(Credential.toProvider(secretManager.getCredential(project)))
-                    .build();
+            dynamoDB = clients.dynamoDB(project.getSourceRegion().getName(), secretManager.getCredential(project));
         } else {
-            dynamoDB = AmazonDynamoDBClientBuilder.standard()
-                    .withRegion(project.getTargetRegion().toAwsRegion())
-                    .build();
+            dynamoDB = clients.dynamoDB(project.getTargetRegion().getName(), null);
         }
 
         try {
@@ -100,6 +128,13 @@ public class DynamoService implements ProjectService {
     }
 
     public AwsTableItem[] getAwsTableItems(Project project) {
+        return toItems(project);
+    }
+
+    /**
+     * Maps the items of the project to their tables, by name.
+     */
+    static AwsTableItem[] toItems(Project project) {
         return project.getDynamoProject().getItems()
                 .stream()
                 .map(item -> ImmutableAwsTableItem.builder()
@@ -131,6 +166,7 @@ public class DynamoService implements ProjectService {
 
         log.debug("Save Dynamo project [{}]", project.getName());
         projectFinder.save(project, request.getSourceCredential());
+        projectCache.evict(project.getId());
     }
 
     @Override
@@ -150,6 +186,36 @@ public class DynamoService implements ProjectService {
             }
         }
 
+        checkItem(project, item);
+        items.add(item);
+        itemWriter.append(project, Section.DYNAMO, List.of(item));
+        replicateTableMachine.start(project, item);
+    }
+
+    /**
+     * Adds the items that are valid in a single write, then starts their replication.
+     */
+    public ItemOutcome[] addItems(Project project, DynamoItem[] requested) {
+        log.info("Add {} Dynamo items to project {}", requested.length, project.getName());
+
+        final var items = project.getDynamoProject().getItems();
+        final var batch = itemValidator.validate(items, List.of(requested), DynamoItem::getId,
+                item -> checkItem(project, item));
+        final var accepted = batch.getAccepted();
+        items.addAll(accepted);
+        itemWriter.append(project, Section.DYNAMO, accepted);
+        for (var item : accepted) {
+            try {
+                replicateTableMachine.start(project, item);
+            } catch (RuntimeException e) {
+                log.warn("Unable to start replication of item " + item.getId(), e);
+                batch.fail(item, "已添加，但无法开始复制：" + e.getLocalizedMessage());
+            }
+        }
+        return batch.toOutcomes(DynamoItem::getId);
+    }
+
+    private void checkItem(Project project, DynamoItem item) {
         if (!checkRegion(project, item.getSource(), true)) {
             throw new PortalException("源表所属区域不是 " + project.getSourceRegion());
         }
@@ -157,16 +223,16 @@ public class DynamoService implements ProjectService {
         if (!checkRegion(project, item.getTarget(), false)) {
             throw new PortalException("目的表所属区域不是 " + project.getTargetRegion());
         }
-
-        items.add(item);
-        replicateTableMachine.start(project, item); // will save project
     }
 
     public void deleteItems(Project project, String[] keys) {
         log.info("Delete {} Dynamo items from project {}", keys.length, project.getName());
         final var keySet = Set.of(keys);
-        project.getDynamoProject().getItems().removeIf(config -> keySet.contains(config.getId()));
-        projectFinder.save(project);
+        final var items = project.getDynamoProject().getItems();
+        itemWriter.remove(project, Section.DYNAMO, items.stream()
+                .filter(config -> keySet.contains(config.getId()))
+                .collect(Collectors.toList()));
+        items.removeIf(config -> keySet.contains(config.getId()));
     }
 
     public void startItem(Project project, DynamoItem item) {
@@ -178,4 +244,75 @@ public class DynamoService implements ProjectService {
         log.info("Stop replicating item {} of project {}", item.getId(), project.getName());
         replicateTableMachine.stop(project, project.getDynamoProject().find(item.getId()));
     }
+
+    /**
+     * Starts the replication of the items not already replicating, writing their executions at once.
+     */
+    public ItemOutcome[] startItems(Project project, DynamoItem[] requested) {
+        log.info("Start replicating {} items of project {}", requested.length, project.getName());
+        final var batch = findItems(project, requested);
+        batch.getAccepted().stream()
+                .filter(replicateTableMachine::isRunning)
+                .forEach(item -> batch.fail(item, "复制项 " + item.getId() + " 正在复制，请先停止"));
+        dispatcher.dispatch(Api.START_EXECUTION, batch, item -> replicateTableMachine.startExecution(project, item));
+        writeItems(project, batch, DynamoReplicateTableMachine.START_ATTRIBUTES,
+                item -> "已开始复制，但无法保存执行 " + item.getExecutionArn() + "：");
+        return batch.toOutcomes(DynamoItem::getId);
+    }
+
+    /**
+     * Stops the replication of the items, writing their states at once.
+     */
+    public ItemOutcome[] stopItems(Project project, DynamoItem[] requested) {
+        log.info("Stop replicating {} items of project {}", requested.length, project.getName());
+        final var batch = findItems(project, requested);
+        dispatcher.dispatch(Api.STOP_EXECUTION, batch, item -> replicateTableMachine.stopExecution(project, item));
+        writeItems(project, batch, DynamoReplicateTableMachine.STOP_ATTRIBUTES,
+                item -> "已停止复制，但无法保存状态：");
+        return batch.toOutcomes(DynamoItem::getId);
+    }
+
+    /**
+     * @return the items of the project with the requested IDs, the others being failed.
+     */
+    private ItemBatch<DynamoItem> findItems(Project project, DynamoItem[] requested) {
+        final var byId = project.getDynamoProject().getItems().stream()
+                .collect(Collectors.toMap(DynamoItem::getId, item -> item, (a, b) -> a));
+        final var found = new ArrayList<DynamoItem>();
+        final var errors = new IdentityHashMap<DynamoItem, String>();
+        final var ids = new HashSet<String>();
+        for (var item : requested) {
+            final var stored = byId.get(item.getId());
+            if (stored == null) {
+                errors.put(item, "找不到复制项 " + item.getId());
+            } else if (!ids.add(item.getId())) {
+                errors.put(item, "重复的复制项 " + item.getId());
+            }
+            found.add(errors.containsKey(item) ? item : stored);
+        }
+
+        final var batch = new ItemBatch<>(found);
+        errors.forEach(batch::fail);
+        return batch;
+    }
+
+    /**
+     * Writes the items in one request, already retried by the item writer, and fails each of them with its own
+     * message if it cannot be written, as their executions cannot be undone.
+     */
+    private void writeItems(
+            Project project, ItemBatch<DynamoItem> batch, List<String> attributes, Function<DynamoItem, String> error) {
+        final var items = new LinkedHashMap<DynamoItem, List<String>>();
+        batch.getAccepted().forEach(item -> items.put(item, attributes));
+        if (items.isEmpty()) {
+            return;
+        }
+
+        try {
+            itemWriter.update(project, Section.DYNAMO, items);
+        } catch (RuntimeException e) {
+            log.warn("Unable to write {} items of project {}", items.size(), project.getName(), e);
+            items.keySet().forEach(item -> batch.fail(item, error.apply(item) + e.getLocalizedMessage()));
+        }
+    }
 }
@@ -6,10 +6,16 @@ package aws.proserve.bcs.dr.server.dynamo.service.machine;
 import aws.proserve.bcs.dr.dynamo.DynamoItem;
 import aws.proserve.bcs.dr.dynamo.DynamoItem.State;
 import aws.proserve.bcs.dr.machine.AbstractStateMachine;
+import aws.proserve.bcs.dr.project.Component;
 import aws.proserve.bcs.dr.project.Project;
 import aws.proserve.bcs.dr.server.dynamo.dto.ImmutableReplicateDynamoRequest;
 import aws.proserve.bcs.dr.server.dynamo.dto.ImmutableTable;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import aws.proserve.bcs.dr.server.machine.service.ExecutionTracker;
+import aws.proserve.bcs.dr.server.machine.service.TrackedMachine;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import aws.proserve.bcs.dr.server.project.service.ProjectWriteBehind;
+import com.amazonaws.retry.RetryUtils;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.amazonaws.services.stepfunctions.model.AWSStepFunctionsException;
 import com.amazonaws.services.stepfunctions.model.StopExecutionRequest;
@@ -17,21 +23,82 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.inject.Named;
 import java.util.Date;
+import java.util.List;
 
 @Named
-public class DynamoReplicateTableMachine extends AbstractStateMachine {
+public class DynamoReplicateTableMachine extends AbstractStateMachine implements TrackedMachine<DynamoItem> {
 
-    private final DynamoDBMapper dbMapper;
+    /**
+     * Attributes of an item changed by {@link #startExecution}.
+     */
+    public static final List<String> START_ATTRIBUTES = List.of(
+            ProjectItemWriter.EXECUTION_ARN, ProjectItemWriter.STATE, ProjectItemWriter.START_TIME);
+
+    /**
+     * Attributes of an item changed by {@link #stopExecution}.
+     */
+    public static final List<String> STOP_ATTRIBUTES = List.of(ProjectItemWriter.STATE, ProjectItemWriter.END_TIME);
+
+    private final ProjectWriteBehind writeBehind;
+    private final ProjectItemWriter itemWriter;
+    private final ExecutionTracker tracker;
 
     DynamoReplicateTableMachine(
             AWSStepFunctions machine,
             ObjectMapper mapper,
-            DynamoDBMapper dbMapper) {
+            ProjectWriteBehind writeBehind,
+            ProjectItemWriter itemWriter,
+            ExecutionTracker tracker) {
         super(machine, mapper);
-        this.dbMapper = dbMapper;
+        this.writeBehind = writeBehind;
+        this.itemWriter = itemWriter;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Component getType() {
+        return Component.DynamoDB;
+    }
+
+    @Override
+    public boolean isRunning(DynamoItem item) {
+        return State.REPLICATING.name().equals(item.getState());
+    }
+
+    /**
+     * An execution ends on its own only when the replication breaks, the item is then marked as stopped, unless the
+     * stored item has been started again meanwhile.
+     */
+    @Override
+    public void resume(Project project, DynamoItem item, String executionArn) {
+        tracker.track(executionArn,
+                result -> end(project, item, executionArn),
+                result -> end(project, item, executionArn));
+    }
+
+    private void end(Project project, DynamoItem item, String executionArn) {
+        if (!isRunning(item) || !executionArn.equals(item.getExecutionArn())) {
+            return;
+        }
+
+        log.warn("Table replication from {} ended on its own", item.getSource());
+        item.setState(State.STOPPED.name());
+        item.setEndTime(new Date());
+        if (!itemWriter.updateIfExecution(project, Section.DYNAMO, item, executionArn,
+                STOP_ATTRIBUTES.toArray(String[]::new))) {
+            log.info("Table replication {} ended after the table was replicated again", executionArn);
+        }
     }
 
     public void start(Project project, DynamoItem item) {
+        startExecution(project, item);
+        writeBehind.update(project, Section.DYNAMO, item, START_ATTRIBUTES.toArray(String[]::new));
+    }
+
+    /**
+     * Starts the execution of the item, leaving the write of its {@link #START_ATTRIBUTES} to the caller.
+     */
+    public void startExecution(Project project, DynamoItem item) {
         log.info("Schedule table replication from {} at {} to {} at {}",
                 item.getSource(), project.getSourceRegion(),
                 item.getTarget(), project.getTargetRegion());
@@ -50,10 +117,26 @@ public class DynamoReplicateTableMachine extends AbstractStateMachine {
                         .build()));
         item.setState(State.REPLICATING.name());
         item.setStartTime(new Date());
-        dbMapper.save(project);
+        resume(project, item, item.getExecutionArn());
     }
 
     public void stop(Project project, DynamoItem config) {
+        try {
+            stopExecution(project, config);
+        } catch (AWSStepFunctionsException e) {
+            log.warn("Unable to stop execution", e);
+            config.setState(State.STOPPED.name());
+            config.setEndTime(new Date());
+        }
+        writeBehind.update(project, Section.DYNAMO, config, STOP_ATTRIBUTES.toArray(String[]::new));
+    }
+
+    /**
+     * Stops the execution of the item, leaving the write of its {@link #STOP_ATTRIBUTES} to the caller.
+     *
+     * @throws AWSStepFunctionsException if Step Functions still throttles the call after the retries of its client.
+     */
+    public void stopExecution(Project project, DynamoItem config) {
         log.info("Stop table replication from {} at {} to {} at {}",
                 config.getSource(), project.getSourceRegion(),
                 config.getTarget(), project.getTargetRegion());
@@ -61,11 +144,13 @@ public class DynamoReplicateTableMachine extends AbstractStateMachine {
         try {
             machine.stopExecution(new StopExecutionRequest().withExecutionArn(config.getExecutionArn()));
         } catch (AWSStepFunctionsException e) {
+            if (RetryUtils.isThrottlingException(e)) {
+                throw e;
+            }
             log.warn("Unable to stop execution", e);
         }
 
         config.setState(State.STOPPED.name());
         config.setEndTime(new Date());
-        dbMapper.save(project);
     }
 }
@@ -48,6 +48,13 @@ public class PortalExceptionHandler {
         return ResponseEntity.badRequest().body(Response.unsuccessful(e.getLocalizedMessage()));
     }
 
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<Response> handle(ServerBusyException e) {
+        log.warn("ServerBusyException {}", e.getLocalizedMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Response.unsuccessful(e.getLocalizedMessage()));
+    }
+
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Response> handle(Exception e) {
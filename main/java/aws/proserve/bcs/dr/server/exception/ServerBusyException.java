@@ -0,0 +1,16 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a bounded executor cannot take more work; answered with HTTP 429.
+ */
+public class ServerBusyException extends RejectedExecutionException {
+
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,69 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.machine.service;
+
+import aws.proserve.bcs.dr.exception.PortalException;
+import aws.proserve.bcs.dr.server.project.service.ItemBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Named;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Starts or stops the executions of the items of a bulk request, by at most <code>parallelism</code> workers on the
+ * dispatch executor, apart from the replication executor that applies the outcome of executions.
+ * <p>
+ * Calls are neither rate limited nor retried here: requests of the Step Functions client are admitted by
+ * <code>AwsAdmissionControl</code>, and retried by the retry policy of the client.
+ */
+@Named
+public class ExecutionDispatcher {
+
+    public enum Api {
+        START_EXECUTION,
+        STOP_EXECUTION
+    }
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    ExecutionDispatcher(
+            @Named("dispatchExecutor") ExecutorService executor,
+            @Value("${portal.executions.dispatch.parallelism:4}") int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Calls the API for each accepted item of the batch, failing the items whose call fails.
+     */
+    public <T> void dispatch(Api api, ItemBatch<T> batch, Consumer<T> call) {
+        final var items = batch.getAccepted();
+        final var next = new AtomicInteger();
+        final var workers = IntStream.range(0, Math.min(parallelism, items.size()))
+                .mapToObj(w -> CompletableFuture.runAsync(() -> {
+                    for (var i = next.getAndIncrement(); i < items.size(); i = next.getAndIncrement()) {
+                        final var item = items.get(i);
+                        try {
+                            call.accept(item);
+                        } catch (RuntimeException e) {
+                            log.warn("Unable to call {} for an item", api, e);
+                            batch.fail(item, e instanceof PortalException
+                                    ? e.getLocalizedMessage()
+                                    : "调用 Step Functions 失败：" + e.getLocalizedMessage());
+                        }
+                    }
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(workers).join();
+    }
+}
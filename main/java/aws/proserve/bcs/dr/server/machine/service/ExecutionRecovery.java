@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.machine.service;
+
+import aws.proserve.bcs.dr.project.ProjectFinder;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.inject.Named;
+import java.util.List;
+
+/**
+ * Tracks again, once the server is up, the executions of the items that were stored as running, as the
+ * {@link ExecutionTracker} only keeps its executions in memory.
+ */
+@Named
+class ExecutionRecovery {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ProjectFinder projectFinder;
+    private final ProjectItemWriter itemWriter;
+    private final List<TrackedMachine<?>> machines;
+
+    ExecutionRecovery(
+            ProjectFinder projectFinder,
+            ProjectItemWriter itemWriter,
+            List<TrackedMachine<?>> machines) {
+        this.projectFinder = projectFinder;
+        this.itemWriter = itemWriter;
+        this.machines = machines;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void recover() {
+        for (var machine : machines) {
+            try {
+                recover(machine);
+            } catch (RuntimeException e) {
+                log.warn("Unable to recover executions of " + machine.getType() + " projects", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void recover(TrackedMachine<T> machine) {
+        final var section = Section.of(machine.getType());
+        var count = 0;
+        for (var project : projectFinder.findByType(machine.getType())) {
+            final var arns = itemWriter.executionArns(project, section);
+            for (var item : section.items(project)) {
+                final var arn = arns.get(item);
+                if (arn != null && machine.isRunning((T) item)) {
+                    machine.resume(project, (T) item, arn);
+                    count++;
+                }
+            }
+        }
+        log.info("Recovered {} running executions of {} projects", count, machine.getType());
+    }
+}
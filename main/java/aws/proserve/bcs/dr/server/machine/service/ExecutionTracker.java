@@ -0,0 +1,203 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.machine.service;
+
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.DescribeExecutionRequest;
+import com.amazonaws.services.stepfunctions.model.DescribeExecutionResult;
+import com.amazonaws.services.stepfunctions.model.ExecutionDoesNotExistException;
+import com.amazonaws.services.stepfunctions.model.ExecutionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Follows Step Functions executions started with <code>executeAsync</code> until they end.
+ * <p>
+ * One thread polls <code>DescribeExecution</code> for at most <code>batchSize</code> due executions per tick.
+ * An execution still running is polled again after a delay that doubles from <code>minDelay</code> up to
+ * <code>maxDelay</code>, and all polling pauses for a while when Step Functions throttles. Callbacks run on the
+ * replication executor.
+ * <p>
+ * Executions are only tracked in memory, those of a {@link TrackedMachine} are tracked again after a restart by
+ * {@link ExecutionRecovery}.
+ */
+@Named
+public class ExecutionTracker {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final AWSStepFunctions machine;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+
+    private final ConcurrentMap<String, Execution> executions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService poller;
+    private long throttleDelayMillis;
+    private long pausedUntil;
+
+    ExecutionTracker(
+            AWSStepFunctions machine,
+            @Named("replicationExecutor") ExecutorService executor,
+            MetricService metricService,
+            @Value("${portal.executions.batchSize:20}") int batchSize,
+            @Value("${portal.executions.minDelayMillis:5000}") long minDelayMillis,
+            @Value("${portal.executions.maxDelayMillis:60000}") long maxDelayMillis) {
+        this.machine = machine;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.minDelayMillis = minDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.throttleDelayMillis = minDelayMillis;
+
+        metricService.gauge("executions_tracked", executions::size);
+        this.poller = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("execution-tracker-"));
+    }
+
+    @PostConstruct
+    void start() {
+        poller.scheduleWithFixedDelay(this::poll, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param onSuccess called once the execution succeeds.
+     * @param onFailure called once the execution fails, times out, is aborted or cannot be found.
+     */
+    public void track(String executionArn,
+                      Consumer<DescribeExecutionResult> onSuccess,
+                      Consumer<DescribeExecutionResult> onFailure) {
+        log.debug("Track execution {}", executionArn);
+        executions.put(executionArn, new Execution(executionArn, onSuccess, onFailure,
+                System.currentTimeMillis() + minDelayMillis, minDelayMillis));
+    }
+
+    public int size() {
+        return executions.size();
+    }
+
+    void poll() {
+        final var now = System.currentTimeMillis();
+        if (now < pausedUntil) {
+            return;
+        }
+
+        final var due = executions.values().stream()
+                .filter(e -> e.nextPollAt <= now)
+                .sorted(Comparator.comparingLong(e -> e.nextPollAt))
+                .limit(batchSize)
+                .collect(Collectors.toList());
+
+        for (var execution : due) {
+            final DescribeExecutionResult result;
+            try {
+                result = machine.describeExecution(new DescribeExecutionRequest()
+                        .withExecutionArn(execution.executionArn));
+            } catch (ExecutionDoesNotExistException e) {
+                log.warn("Execution {} does not exist", execution.executionArn);
+                complete(execution, execution.onFailure, null);
+                continue;
+            } catch (AmazonServiceException e) {
+                if (RetryUtils.isThrottlingException(e)) {
+                    log.info("Throttled, pause polling for {} ms", throttleDelayMillis);
+                    pausedUntil = System.currentTimeMillis() + throttleDelayMillis;
+                    throttleDelayMillis = Math.min(throttleDelayMillis * 2, maxDelayMillis);
+                    return;
+                }
+
+                log.warn("Unable to describe execution " + execution.executionArn, e);
+                execution.delay(System.currentTimeMillis(), maxDelayMillis);
+                continue;
+            } catch (Exception e) {
+                log.warn("Unable to describe execution " + execution.executionArn, e);
+                execution.delay(System.currentTimeMillis(), maxDelayMillis);
+                continue;
+            }
+
+            throttleDelayMillis = minDelayMillis;
+            switch (ExecutionStatus.fromValue(result.getStatus())) {
+                case RUNNING:
+                    execution.delay(System.currentTimeMillis(), maxDelayMillis);
+                    break;
+
+                case SUCCEEDED:
+                    complete(execution, execution.onSuccess, result);
+                    break;
+
+                default:
+                    log.warn("Execution {} ended as {}", execution.executionArn, result.getStatus());
+                    complete(execution, execution.onFailure, result);
+                    break;
+            }
+        }
+    }
+
+    private void complete(Execution execution, Consumer<DescribeExecutionResult> callback,
+                          DescribeExecutionResult result) {
+        executions.remove(execution.executionArn);
+        final Runnable task = () -> {
+            try {
+                callback.accept(result);
+            } catch (Exception e) {
+                log.warn("Callback of execution " + execution.executionArn + " failed", e);
+            }
+        };
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        poller.shutdownNow();
+        if (!executions.isEmpty()) {
+            log.warn("Stop tracking {} running executions", executions.size());
+        }
+    }
+
+    private static final class Execution {
+        private final String executionArn;
+        private final Consumer<DescribeExecutionResult> onSuccess;
+        private final Consumer<DescribeExecutionResult> onFailure;
+        private volatile long nextPollAt;
+        private volatile long delayMillis;
+
+        private Execution(String executionArn,
+                          Consumer<DescribeExecutionResult> onSuccess,
+                          Consumer<DescribeExecutionResult> onFailure,
+                          long nextPollAt, long delayMillis) {
+            this.executionArn = executionArn;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+            this.nextPollAt = nextPollAt;
+            this.delayMillis = delayMillis;
+        }
+
+        private void delay(long now, long maxDelayMillis) {
+            delayMillis = Math.min(delayMillis * 2, maxDelayMillis);
+            nextPollAt = now + delayMillis;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.machine.service;
+
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+
+/**
+ * A machine whose executions are followed by the {@link ExecutionTracker}, and followed again by
+ * {@link ExecutionRecovery} after a restart.
+ *
+ * @param <T> the type of the items of its projects.
+ */
+public interface TrackedMachine<T> {
+
+    Component getType();
+
+    /**
+     * @return whether the item was stored while its execution was running.
+     */
+    boolean isRunning(T item);
+
+    /**
+     * Follows the execution of the item again, as if it had just been started.
+     */
+    void resume(Project project, T item, String executionArn);
+}
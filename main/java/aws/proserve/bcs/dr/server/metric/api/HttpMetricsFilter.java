@@ -0,0 +1,181 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.metric.api;
+
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.inject.Named;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the latency, response size and status of every request, tagged by method and route template, along with
+ * the number of requests in flight.
+ * <p>
+ * A streamed response is recorded once its asynchronous processing completes.
+ */
+@Named
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class HttpMetricsFilter extends OncePerRequestFilter {
+
+    /**
+     * Bucket bounds of a response size, in bytes.
+     */
+    private static final long[] BYTES = {256, 1_024, 4_096, 16_384, 65_536, 262_144, 1_048_576, 4_194_304, 16_777_216};
+
+    /**
+     * The route of requests matching no handler, so that unknown URIs do not each make a metric.
+     */
+    private static final String UNMATCHED = "unmatched";
+
+    private final MetricService metricService;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    HttpMetricsFilter(MetricService metricService) {
+        this.metricService = metricService;
+        metricService.gauge("http_requests_in_flight", inFlight::get);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        final var startAt = System.nanoTime();
+        final var counting = new CountingResponse(response);
+        inFlight.incrementAndGet();
+
+        var failed = true;
+        try {
+            chain.doFilter(request, counting);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, counting, startAt, false);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, counting, startAt, failed);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, CountingResponse response, long startAt, boolean failed) {
+        inFlight.decrementAndGet();
+
+        final var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final var route = pattern == null ? UNMATCHED : pattern.toString();
+        final var status = failed ? 500 : response.getStatus();
+        final var method = request.getMethod();
+
+        metricService.timer("http_request_millis", "method", method, "route", route)
+                .record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startAt));
+        metricService.histogram("http_response_bytes", BYTES, "method", method, "route", route)
+                .record(response.count);
+        metricService.counter("http_requests", "method", method, "route", route, "status", String.valueOf(status))
+                .increment();
+        if (status >= 400) {
+            metricService.counter("http_request_errors", "method", method, "route", route).increment();
+        }
+    }
+
+    /**
+     * Counts the bytes written to the body of a response.
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private volatile long count;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                final var delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        count += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+    }
+}
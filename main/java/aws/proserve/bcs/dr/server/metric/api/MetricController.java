@@ -0,0 +1,36 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.metric.api;
+
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/metrics")
+class MetricController {
+
+    private final MetricService service;
+
+    MetricController(MetricService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(service.snapshot());
+    }
+
+    /**
+     * @return the metrics in the Prometheus text format, to be scraped.
+     */
+    @GetMapping(value = "/prometheus", produces = "text/plain; version=0.0.4")
+    ResponseEntity<String> getPrometheusMetrics() {
+        return ResponseEntity.ok(service.prometheus());
+    }
+}
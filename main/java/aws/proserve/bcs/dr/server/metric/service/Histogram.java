@@ -0,0 +1,84 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.metric.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts recorded values into fixed buckets, each bounded above by one of <code>bounds</code>.
+ */
+public class Histogram {
+    private final long[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(long[] bounds) {
+        this.bounds = bounds.clone();
+        Arrays.sort(this.bounds);
+        this.buckets = new LongAdder[this.bounds.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        int i = Arrays.binarySearch(bounds, value);
+        if (i < 0) {
+            i = -i - 1;
+        }
+
+        buckets[i].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long[] getBounds() {
+        return bounds.clone();
+    }
+
+    /**
+     * @return count of each bucket, the last of which is unbounded.
+     */
+    public long[] getBucketCounts() {
+        return Arrays.stream(buckets).mapToLong(LongAdder::sum).toArray();
+    }
+
+    /**
+     * @return the bound of the bucket holding the quantile, at most the maximum recorded.
+     */
+    public long percentile(double quantile) {
+        final var counts = getBucketCounts();
+        final var total = Arrays.stream(counts).sum();
+        if (total == 0) {
+            return 0;
+        }
+
+        final var rank = Math.max(1, (long) Math.ceil(quantile * total));
+        var seen = 0L;
+        for (int i = 0; i < bounds.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(bounds[i], max());
+            }
+        }
+        return max();
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+}
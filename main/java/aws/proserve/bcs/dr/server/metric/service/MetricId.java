@@ -0,0 +1,65 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.metric.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * A metric name with its tags, rendered as <code>name{key="value",...}</code>.
+ */
+public final class MetricId {
+    private final String name;
+    private final Map<String, String> tags;
+
+    MetricId(String name, String... tags) {
+        if (tags.length % 2 != 0) {
+            throw new IllegalArgumentException("Tags must be key value pairs: " + name);
+        }
+
+        this.name = name;
+        this.tags = new TreeMap<>();
+        for (int i = 0; i < tags.length; i += 2) {
+            this.tags.put(tags[i], tags[i + 1] == null ? "" : tags[i + 1]);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MetricId)) {
+            return false;
+        }
+        final var that = (MetricId) o;
+        return name.equals(that.name) && tags.equals(that.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, tags);
+    }
+
+    @Override
+    public String toString() {
+        if (tags.isEmpty()) {
+            return name;
+        }
+
+        return tags.entrySet().stream()
+                .map(e -> e.getKey() + "=\"" + e.getValue() + "\"")
+                .collect(Collectors.joining(",", name + "{", "}"));
+    }
+}
@@ -0,0 +1,77 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.metric.service;
+
+import javax.inject.Named;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * In-process registry of server metrics, tagged by key value pairs.
+ */
+@Named
+public class MetricService {
+
+    /**
+     * Bucket bounds of a timer, in milliseconds.
+     */
+    private static final long[] MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000};
+
+    private final ConcurrentMap<MetricId, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricId, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MetricId, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public MetricService() {
+    }
+
+    public Counter counter(String name, String... tags) {
+        return counters.computeIfAbsent(new MetricId(name, tags), id -> new Counter());
+    }
+
+    public Histogram histogram(String name, long[] bounds, String... tags) {
+        return histograms.computeIfAbsent(new MetricId(name, tags), id -> new Histogram(bounds));
+    }
+
+    /**
+     * @return a histogram of durations in milliseconds.
+     */
+    public Histogram timer(String name, String... tags) {
+        return histogram(name, MILLIS, tags);
+    }
+
+    /**
+     * @apiNote a later registration of the same name and tags replaces the earlier one.
+     */
+    public void gauge(String name, Supplier<? extends Number> value, String... tags) {
+        gauges.put(new MetricId(name, tags), value);
+    }
+
+    public Map<String, Object> snapshot() {
+        final var snapshot = new TreeMap<String, Object>();
+        counters.forEach((id, counter) -> snapshot.put(id.toString(), counter.count()));
+        gauges.forEach((id, gauge) -> snapshot.put(id.toString(), gauge.get()));
+        histograms.forEach((id, histogram) -> snapshot.put(id.toString(), Map.of(
+                "count", histogram.count(),
+                "sum", histogram.sum(),
+                "max", histogram.max(),
+                "p50", histogram.percentile(0.5),
+                "p95", histogram.percentile(0.95),
+                "p99", histogram.percentile(0.99))));
+        return snapshot;
+    }
+
+    /**
+     * @return all metrics in the Prometheus text exposition format.
+     */
+    public String prometheus() {
+        final var format = new PrometheusFormat();
+        counters.forEach((id, counter) -> format.counter(id, counter.count()));
+        gauges.forEach((id, gauge) -> format.gauge(id, gauge.get()));
+        histograms.forEach(format::histogram);
+        return format.toString();
+    }
+}
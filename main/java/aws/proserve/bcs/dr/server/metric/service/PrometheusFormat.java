@@ -0,0 +1,89 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.metric.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes metrics in the Prometheus text exposition format, grouping the samples of each name under its type.
+ */
+final class PrometheusFormat {
+    private final Map<String, String> types = new TreeMap<>();
+    private final Map<String, StringBuilder> samples = new TreeMap<>();
+
+    /**
+     * A counter is named by its sample in the text format 0.0.4, so its type line names <code>&lt;name&gt;_total</code>.
+     */
+    void counter(MetricId id, long value) {
+        sample("counter", id.getName() + "_total", "", id.getTags(), null, value);
+    }
+
+    void gauge(MetricId id, Number value) {
+        sample("gauge", id.getName(), "", id.getTags(), null, value == null ? Double.NaN : value);
+    }
+
+    void histogram(MetricId id, Histogram histogram) {
+        final var bounds = histogram.getBounds();
+        final var counts = histogram.getBucketCounts();
+        var cumulative = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            final var bound = i < bounds.length ? String.valueOf(bounds[i]) : "+Inf";
+            sample("histogram", id.getName(), "_bucket", id.getTags(), bound, cumulative);
+        }
+        sample("histogram", id.getName(), "_sum", id.getTags(), null, histogram.sum());
+        sample("histogram", id.getName(), "_count", id.getTags(), null, histogram.count());
+    }
+
+    private void sample(String type, String name, String suffix, Map<String, String> tags, String bound,
+                        Number value) {
+        types.put(name, type);
+        final var builder = samples.computeIfAbsent(name, n -> new StringBuilder());
+        builder.append(name).append(suffix);
+
+        final var labels = new TreeMap<>(tags);
+        if (bound != null) {
+            labels.put("le", bound);
+        }
+        if (!labels.isEmpty()) {
+            var separator = '{';
+            for (var label : labels.entrySet()) {
+                builder.append(separator).append(label.getKey()).append("=\"");
+                escape(builder, label.getValue());
+                builder.append('"');
+                separator = ',';
+            }
+            builder.append('}');
+        }
+        builder.append(' ').append(value).append('\n');
+    }
+
+    private static void escape(StringBuilder builder, String value) {
+        for (var c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        final var text = new StringBuilder();
+        samples.forEach((name, builder) -> text
+                .append("# TYPE ").append(name).append(' ').append(types.get(name)).append('\n')
+                .append(builder));
+        return text.toString();
+    }
+}
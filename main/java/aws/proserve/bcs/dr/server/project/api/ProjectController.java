@@ -15,6 +15,8 @@ import aws.proserve.bcs.dr.server.boot.dto.CreateBootProjectRequest;
 import aws.proserve.bcs.dr.server.dbdump.dto.CreateDbDumpProjectRequest;
 import aws.proserve.bcs.dr.server.dbreplica.dto.CreateDbReplicaProjectRequest;
 import aws.proserve.bcs.dr.server.dynamo.dto.CreateDynamoProjectRequest;
+import aws.proserve.bcs.dr.server.project.dto.ProjectPage;
+import aws.proserve.bcs.dr.server.project.dto.RollupSummary;
 import aws.proserve.bcs.dr.server.project.service.ProjectService;
 import aws.proserve.bcs.dr.server.s3.dto.CreateS3ProjectRequest;
 import aws.proserve.bcs.dr.server.vpc.dto.CreateVpcProjectRequest;
@@ -25,7 +27,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.inject.Named;
 import java.util.List;
@@ -136,9 +140,49 @@ class ProjectController {
         return ResponseEntity.ok(Response.SUCCESS);
     }
 
+    /**
+     * Lists projects of a type without their items, see <code>GET /projects/{projectId}</code> for those.
+     */
+    @GetMapping("/summaries")
+    ResponseEntity<ProjectPage> findPage(
+            @RequestParam Component type,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(service.findPage(type, limit, cursor));
+    }
+
+    /**
+     * @return number of items of all projects by type and state.
+     */
+    @GetMapping("/summary")
+    ResponseEntity<RollupSummary> getRollup() {
+        return ResponseEntity.ok(service.getRollup());
+    }
+
+    /**
+     * Recounts the items of all projects, for projects created before they were counted.
+     */
+    @PostMapping("/summary/rebuild")
+    ResponseEntity<Response> rebuildRollup() {
+        service.rebuildRollup();
+        return ResponseEntity.ok(Response.SUCCESS);
+    }
+
+    /**
+     * Tagged by the version of the very project returned, answering 304 until it changes.
+     */
     @GetMapping("/{projectId}")
-    ResponseEntity<Project> findOne(@PathVariable String projectId) {
-        return ResponseEntity.ok(service.findOne(projectId));
+    ResponseEntity<Project> findOne(
+            @PathVariable String projectId,
+            WebRequest request) {
+        final var found = service.findVersioned(projectId);
+        if (found == null) {
+            return ResponseEntity.ok(null);
+        }
+        if (request.checkNotModified(found.getVersion())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(found.getVersion()).body(found.getProject());
     }
 
     @GetMapping("/{projectId}/instances/{side}")
@@ -0,0 +1,27 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * What became of one item of a bulk request.
+ */
+@JsonSerialize(as = ImmutableItemOutcome.class)
+@JsonDeserialize(as = ImmutableItemOutcome.class)
+@Value.Immutable
+public interface ItemOutcome {
+
+    String getId();
+
+    /**
+     * @return why the item failed, or <code>null</code> if it succeeded.
+     */
+    @Nullable
+    String getError();
+}
@@ -0,0 +1,25 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+@JsonSerialize(as = ImmutableProjectPage.class)
+@JsonDeserialize(as = ImmutableProjectPage.class)
+@Value.Immutable
+public interface ProjectPage {
+
+    List<ProjectSummary> getProjects();
+
+    /**
+     * @return where the next page starts, or <code>null</code> if this is the last page.
+     */
+    @Nullable
+    String getCursor();
+}
@@ -0,0 +1,45 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.dto;
+
+import aws.proserve.bcs.dr.project.Component;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * A project without its items, for list views.
+ */
+@JsonSerialize(as = ImmutableProjectSummary.class)
+@JsonDeserialize(as = ImmutableProjectSummary.class)
+@Value.Immutable
+public interface ProjectSummary {
+
+    String getId();
+
+    String getName();
+
+    Component getType();
+
+    @Nullable
+    String getSourceRegion();
+
+    @Nullable
+    String getTargetRegion();
+
+    int getItemCount();
+
+    /**
+     * @return number of items in each state.
+     */
+    Map<String, Integer> getStateCounts();
+
+    /**
+     * @return the state of the project as a whole, derived from the states of its items.
+     */
+    String getState();
+}
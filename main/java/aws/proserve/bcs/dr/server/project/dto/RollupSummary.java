@@ -0,0 +1,22 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.dto;
+
+import aws.proserve.bcs.dr.project.Component;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+import java.util.Map;
+
+@JsonSerialize(as = ImmutableRollupSummary.class)
+@JsonDeserialize(as = ImmutableRollupSummary.class)
+@Value.Immutable
+public interface RollupSummary {
+
+    /**
+     * @return number of items of each project type in each state, and in <code>items</code>.
+     */
+    Map<Component, Map<String, Long>> getCounts();
+}
@@ -0,0 +1,63 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.server.project.dto.ImmutableItemOutcome;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The items of a bulk request, each with the error that failed it, if any.
+ */
+public final class ItemBatch<T> {
+    private final List<T> items;
+    private final String[] errors;
+
+    public ItemBatch(List<T> items) {
+        this.items = items;
+        this.errors = new String[items.size()];
+    }
+
+    void reject(int index, String error) {
+        errors[index] = error;
+    }
+
+    /**
+     * @return the items that have not failed, in the order of the request.
+     */
+    public List<T> getAccepted() {
+        final var accepted = new ArrayList<T>();
+        for (int i = 0; i < items.size(); i++) {
+            if (errors[i] == null) {
+                accepted.add(items.get(i));
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Fails an item after it has been accepted.
+     */
+    public void fail(T item, String error) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == item) {
+                errors[i] = error;
+            }
+        }
+    }
+
+    public ItemOutcome[] toOutcomes(Function<T, String> id) {
+        final var outcomes = new ItemOutcome[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            outcomes[i] = ImmutableItemOutcome.builder()
+                    .id(id.apply(items.get(i)))
+                    .error(errors[i])
+                    .build();
+        }
+        return outcomes;
+    }
+}
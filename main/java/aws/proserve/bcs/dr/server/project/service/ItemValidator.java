@@ -0,0 +1,97 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.exception.PortalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Validates the items of a bulk request before they are added to a project.
+ * <p>
+ * Duplicates are found by ID in a hash set. The other items are checked on the inventory executor, at most
+ * <code>parallelism</code> of a request at a time, so that a large request leaves room for the others.
+ */
+@Named
+public class ItemValidator {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ExecutorService executor;
+    private final int maxSize;
+    private final int parallelism;
+
+    ItemValidator(
+            @Named("inventoryExecutor") ExecutorService executor,
+            @Value("${portal.items.bulk.maxSize:1000}") int maxSize,
+            @Value("${portal.items.bulk.parallelism:4}") int parallelism) {
+        this.executor = executor;
+        this.maxSize = maxSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param existing the items of the project.
+     * @param check    throws a {@link PortalException} telling why the item cannot be added.
+     */
+    public <T> ItemBatch<T> validate(
+            Collection<T> existing, List<T> items, Function<T, String> id, Consumer<T> check) {
+        if (items.size() > maxSize) {
+            throw new PortalException("一次最多添加 " + maxSize + " 个复制项");
+        }
+
+        final var batch = new ItemBatch<>(items);
+        final var ids = existing.stream()
+                .map(id)
+                .collect(Collectors.toCollection(HashSet::new));
+        final var permits = new Semaphore(parallelism);
+        final var checks = new ArrayList<CompletableFuture<Void>>();
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                final var item = items.get(i);
+                final var index = i;
+                if (!ids.add(id.apply(item))) {
+                    batch.reject(index, "重复添加的复制项 " + id.apply(item));
+                    continue;
+                }
+
+                permits.acquire();
+                checks.add(CompletableFuture.runAsync(() -> check.accept(item), executor)
+                        .whenComplete((v, e) -> permits.release())
+                        .exceptionally(e -> {
+                            batch.reject(index, message(e instanceof CompletionException ? e.getCause() : e));
+                            return null;
+                        }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PortalException("复制项验证被中断");
+        } finally {
+            CompletableFuture.allOf(checks.toArray(CompletableFuture[]::new)).join();
+        }
+        return batch;
+    }
+
+    private String message(Throwable e) {
+        if (e instanceof PortalException) {
+            return e.getLocalizedMessage();
+        }
+
+        log.warn("Unable to validate item", e);
+        return "无法验证复制项：" + e.getLocalizedMessage();
+    }
+}
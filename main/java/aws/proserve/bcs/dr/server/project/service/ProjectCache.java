@@ -0,0 +1,149 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCache;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCacheManager;
+import aws.proserve.bcs.dr.server.cache.service.Caches;
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.inject.Named;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of projects by ID, evicted by every write of a project: item writes, saves through the project
+ * finder, and saves or deletes through the <code>DynamoDBMapper</code> bean.
+ * <p>
+ * Projects are cached in their stored form, so that each caller gets its own copy to change, along with a version
+ * hashed from their JSON form.
+ */
+@Named
+public class ProjectCache {
+
+    private final BoundedCache cache;
+    private final DynamoDBMapperTableModel<Project> tableModel;
+    private final ObjectMapper mapper;
+    private final AtomicLong evictions = new AtomicLong();
+
+    ProjectCache(
+            BoundedCacheManager cacheManager,
+            DynamoDBMapper dbMapper,
+            ObjectMapper mapper,
+            MetricService metricService) {
+        this.cache = cacheManager.getCache(Caches.PROJECTS);
+        this.tableModel = dbMapper.getTableModel(Project.class);
+        this.mapper = mapper;
+
+        metricService.gauge("cache_hit_ratio", () -> {
+            final var total = cache.getHits() + cache.getMisses();
+            return total == 0 ? 0 : (double) cache.getHits() / total;
+        }, "cache", Caches.PROJECTS);
+    }
+
+    /**
+     * @return a copy of the cached project, or the one loaded, which is cached unless a write happened meanwhile.
+     */
+    public Project find(String id, Function<String, Project> loader) {
+        final var cached = cache.get(id, Entry.class);
+        if (cached != null) {
+            return tableModel.unconvert(cached.attributes);
+        }
+
+        final var before = evictions.get();
+        final var project = loader.apply(id);
+        load(id, project, before);
+        return project;
+    }
+
+    /**
+     * @return the version of the project, which changes whenever the project does, or <code>null</code> if there is
+     * no such project.
+     */
+    public String version(String id, Function<String, Project> loader) {
+        final var cached = cache.get(id, Entry.class);
+        if (cached != null) {
+            return cached.version;
+        }
+
+        final var before = evictions.get();
+        final var entry = load(id, loader.apply(id), before);
+        return entry == null ? null : entry.version;
+    }
+
+    /**
+     * @return a copy of the project along with the version of that very copy, from a single lookup, or
+     * <code>null</code> if there is no such project.
+     */
+    public Versioned findVersioned(String id, Function<String, Project> loader) {
+        final var cached = cache.get(id, Entry.class);
+        if (cached != null) {
+            return new Versioned(tableModel.unconvert(cached.attributes), cached.version);
+        }
+
+        final var before = evictions.get();
+        final var project = loader.apply(id);
+        final var entry = load(id, project, before);
+        return entry == null ? null : new Versioned(project, entry.version);
+    }
+
+    public void evict(String id) {
+        evictions.incrementAndGet();
+        cache.evict(id);
+    }
+
+    private Entry load(String id, Project project, long before) {
+        if (project == null) {
+            return null;
+        }
+
+        final Entry entry;
+        try {
+            entry = new Entry(tableModel.convert(project), ProjectSnapshots.etag(mapper.writeValueAsBytes(project)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (evictions.get() == before) {
+            cache.put(id, entry);
+        }
+        return entry;
+    }
+
+    public static final class Versioned {
+        private final Project project;
+        private final String version;
+
+        private Versioned(Project project, String version) {
+            this.project = project;
+            this.version = version;
+        }
+
+        public Project getProject() {
+            return project;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+    }
+
+    private static final class Entry {
+        private final Map<String, AttributeValue> attributes;
+        private final String version;
+
+        private Entry(Map<String, AttributeValue> attributes, String version) {
+            this.attributes = attributes;
+            this.version = version;
+        }
+    }
+}
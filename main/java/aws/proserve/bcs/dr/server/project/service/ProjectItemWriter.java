@@ -0,0 +1,585 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.exception.PortalException;
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+/**
+ * Writes the items of a project one attribute at a time, rather than saving the whole project.
+ * <p>
+ * Every write is conditioned on the item at the written index still being the same item, identified by its source
+ * (and target, unless the target is set by the replication itself). When another write has moved the item, the
+ * item list is read again and the write retried at the new index. Concurrent replications of the same project
+ * therefore no longer overwrite each other. Changes of item states are passed on to {@link ProjectRollup}.
+ */
+@Named
+public class ProjectItemWriter {
+    public static final String STATE = "state";
+    public static final String START_TIME = "startTime";
+    public static final String END_TIME = "endTime";
+    public static final String TARGET = "target";
+    public static final String EXECUTION_ARN = "executionArn";
+
+    static final String ITEMS = "items";
+    private static final int MAX_ATTEMPTS = 5;
+
+    public enum Section {
+        S3("s3Project", p -> p.getS3Project().getItems(), "source", "target"),
+        VPC("vpcProject", p -> p.getVpcProject().getItems(), "source"),
+        DYNAMO("dynamoProject", p -> p.getDynamoProject().getItems(), "source", "target"),
+        DB_DUMP("dbDumpProject", p -> p.getDbDumpProject().getItems(), "source", "target"),
+        DB_REPLICA("dbReplicaProject", p -> p.getDbReplicaProject().getItems(), "source", "target");
+
+        private final String property;
+        private final Function<Project, List<?>> items;
+        private final String[] identity;
+
+        Section(String property, Function<Project, List<?>> items, String... identity) {
+            this.property = property;
+            this.items = items;
+            this.identity = identity;
+        }
+
+        public List<?> items(Project project) {
+            return items.apply(project);
+        }
+
+        /**
+         * @return the section of projects of the type, or <code>null</code> if they keep no items here.
+         */
+        public static Section of(Component type) {
+            switch (type) {
+                case S3:
+                    return S3;
+                case VPC:
+                    return VPC;
+                case DynamoDB:
+                    return DYNAMO;
+                case DbDumpMySql:
+                case DbDumpOracle:
+                    return DB_DUMP;
+                case DbReplicaOracleEc2:
+                    return DB_REPLICA;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final DynamoDBMapper dbMapper;
+    private final ProjectCache cache;
+    private final ProjectRollup rollup;
+    private final DynamoDBMapperTableModel<Project> tableModel;
+    private final String tableName;
+
+    ProjectItemWriter(
+            AmazonDynamoDB amazonDynamoDB,
+            DynamoDBMapper dbMapper,
+            ProjectCache cache,
+            ProjectRollup rollup) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.dbMapper = dbMapper;
+        this.cache = cache;
+        this.rollup = rollup;
+        this.tableModel = dbMapper.getTableModel(Project.class);
+        this.tableName = dbMapper.generateCreateTableRequest(Project.class).getTableName();
+    }
+
+    /**
+     * Writes the given attributes of an item of the project, removing those that are <code>null</code>.
+     */
+    public void update(Project project, Section section, Object item, String... attributes) {
+        update(project, section, Map.of(item, List.of(attributes)));
+    }
+
+    /**
+     * Writes the given attributes of each item of the project in one request, removing those that are
+     * <code>null</code>.
+     */
+    public void update(Project project, Section section, Map<?, ? extends Collection<String>> items) {
+        final var stored = itemValues(project, section);
+        final var indexes = new ArrayList<Integer>();
+        final var itemValues = new ArrayList<Map<String, AttributeValue>>();
+        final var itemAttributes = new ArrayList<Collection<String>>();
+        items.forEach((item, attributes) -> {
+            final var index = indexOf(project, section, item);
+            indexes.add(index);
+            itemValues.add(stored.get(index).getM());
+            itemAttributes.add(attributes);
+        });
+        update(project, section, indexes, itemValues, itemAttributes, null);
+    }
+
+    /**
+     * Takes the given attributes of an item of the project as they are now, along with those identifying the item,
+     * to be written later by {@link #update(Project, Section, Collection)}.
+     */
+    @SuppressWarnings("unchecked")
+    ItemUpdate snapshot(Project project, Section section, Object item, Collection<String> attributes) {
+        final var value = dbMapper.getTableModel((Class<Object>) item.getClass()).convert(item);
+        final var values = new HashMap<String, AttributeValue>();
+        for (var attribute : section.identity) {
+            if (value.containsKey(attribute)) {
+                values.put(attribute, value.get(attribute));
+            }
+        }
+        for (var attribute : attributes) {
+            if (value.containsKey(attribute)) {
+                values.put(attribute, value.get(attribute));
+            }
+        }
+        return new ItemUpdate(indexOf(project, section, item), values, new LinkedHashSet<>(attributes));
+    }
+
+    /**
+     * Writes the snapshots of items of the project in one request, each at the index it had when taken unless the
+     * stored items have moved since.
+     */
+    void update(Project project, Section section, Collection<ItemUpdate> items) {
+        final var indexes = new ArrayList<Integer>();
+        final var itemValues = new ArrayList<Map<String, AttributeValue>>();
+        final var itemAttributes = new ArrayList<Collection<String>>();
+        for (var item : items) {
+            indexes.add(item.index);
+            itemValues.add(item.values);
+            itemAttributes.add(item.attributes);
+        }
+        update(project, section, indexes, itemValues, itemAttributes, null);
+    }
+
+    /**
+     * @return the values identifying an item, the same for every snapshot of the item.
+     */
+    static List<AttributeValue> identityOf(Section section, ItemUpdate item) {
+        final var identity = new ArrayList<AttributeValue>();
+        for (var attribute : section.identity) {
+            identity.add(item.values.get(attribute));
+        }
+        return identity;
+    }
+
+    /**
+     * Writes the ARN of the running execution of an item, which S3 and VPC items have no property for, so that the
+     * execution can be followed again after a restart.
+     */
+    public void updateExecutionArn(Project project, Section section, Object item, String executionArn) {
+        final var index = indexOf(project, section, item);
+        final var value = new HashMap<>(itemValues(project, section).get(index).getM());
+        value.put(EXECUTION_ARN, new AttributeValue(executionArn));
+        update(project, section, new ArrayList<>(List.of(index)), List.of(value), List.of(List.of(EXECUTION_ARN)),
+                null);
+    }
+
+    /**
+     * Writes the given attributes of an item of the project, unless the stored item is no longer running the given
+     * execution, such as when the end of an execution is reported after the item has been started again.
+     *
+     * @return <code>false</code> if the write was skipped.
+     */
+    public boolean updateIfExecution(
+            Project project, Section section, Object item, String executionArn, String... attributes) {
+        final var index = indexOf(project, section, item);
+        final var indexes = new ArrayList<>(List.of(index));
+        update(project, section, indexes, List.of(itemValues(project, section).get(index).getM()),
+                List.of(List.of(attributes)), executionArn);
+        return indexes.get(0) >= 0;
+    }
+
+    /**
+     * @return the stored execution ARNs of the items of the project, by item.
+     */
+    public Map<Object, String> executionArns(Project project, Section section) {
+        if (section.items(project).isEmpty()) {
+            return Map.of();
+        }
+
+        final var stored = read(project, section);
+        final var values = itemValues(project, section);
+        final var items = section.items(project);
+        final var arns = new IdentityHashMap<Object, String>();
+        for (int i = 0; i < items.size(); i++) {
+            final var index = indexOf(stored, section, values.get(i).getM());
+            final var arn = index < 0 ? null : stored.get(index).getM().get(EXECUTION_ARN);
+            if (arn != null) {
+                arns.put(items.get(i), arn.getS());
+            }
+        }
+        return arns;
+    }
+
+    /**
+     * @param executionArn the execution the stored items must be running, if not <code>null</code>, those running
+     *                     another one being skipped.
+     */
+    private void update(Project project, Section section, List<Integer> indexes,
+                        List<Map<String, AttributeValue>> itemValues, List<Collection<String>> itemAttributes,
+                        String executionArn) {
+        final var running = executionArn == null ? null : new AttributeValue(executionArn);
+        for (int attempt = 1; ; attempt++) {
+            final var names = new HashMap<String, String>();
+            final var values = new HashMap<String, AttributeValue>();
+            final var set = new StringJoiner(", ", "SET ", "");
+            final var remove = new StringJoiner(", ", "REMOVE ", "");
+            final var conditions = new StringJoiner(" AND ");
+            set.setEmptyValue("");
+            remove.setEmptyValue("");
+
+            for (int i = 0; i < indexes.size(); i++) {
+                if (indexes.get(i) < 0) {
+                    continue;
+                }
+
+                final var path = itemPath(section, indexes.get(i), names);
+                final var value = itemValues.get(i);
+                for (var attribute : itemAttributes.get(i)) {
+                    names.put("#" + attribute, attribute);
+                    if (value.containsKey(attribute)) {
+                        final var placeholder = ":" + attribute + "_" + i;
+                        values.put(placeholder, value.get(attribute));
+                        set.add(path + ".#" + attribute + " = " + placeholder);
+                    } else {
+                        remove.add(path + ".#" + attribute);
+                    }
+                }
+                conditions.add(identityCondition(section, path, value, names, values, "_" + i + "_id"));
+                if (running != null) {
+                    names.put("#" + EXECUTION_ARN, EXECUTION_ARN);
+                    values.put(":running", running);
+                    conditions.add(path + ".#" + EXECUTION_ARN + " = :running");
+                }
+            }
+
+            if (conditions.length() == 0) {
+                return;
+            }
+
+            try {
+                final var old = write(project, section, new UpdateItemRequest()
+                        .withTableName(tableName)
+                        .withKey(key(project))
+                        .withUpdateExpression(set + " " + remove)
+                        .withConditionExpression(conditions.toString())
+                        .withExpressionAttributeNames(names)
+                        .withExpressionAttributeValues(values.isEmpty() ? null : values));
+
+                final var delta = new HashMap<String, Integer>();
+                for (int i = 0; i < indexes.size(); i++) {
+                    if (indexes.get(i) >= 0 && itemAttributes.get(i).contains(STATE)
+                            && indexes.get(i) < old.size()) {
+                        final var oldState = old.get(indexes.get(i)).getM().get(STATE);
+                        final var newState = itemValues.get(i).get(STATE);
+                        if (!Objects.equals(oldState, newState)) {
+                            countState(delta, oldState, -1);
+                            countState(delta, newState, 1);
+                        }
+                    }
+                }
+                rollup.apply(project, delta);
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new PortalException("项目已被同时修改，请稍后重试");
+                }
+
+                final var current = read(project, section);
+                for (int i = 0; i < indexes.size(); i++) {
+                    indexes.set(i, indexOf(current, section, itemValues.get(i)));
+                    if (indexes.get(i) < 0) {
+                        log.warn("Item of project {} was deleted, skip its update", project.getName());
+                    } else if (running != null
+                            && !running.equals(current.get(indexes.get(i)).getM().get(EXECUTION_ARN))) {
+                        log.info("Item of project {} runs another execution than {}, skip its update",
+                                project.getName(), executionArn);
+                        indexes.set(i, -1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the items, which must be in the items of the project already, to the stored project.
+     * <p>
+     * The write is conditioned on the number of stored items, so that concurrent appends cannot both add the same
+     * item. When another write got there first, the items are read again and the append is retried, unless one of
+     * the items has been stored in the meantime.
+     */
+    public void append(Project project, Section section, Collection<?> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        final var values = itemValues(project, section);
+        final var appended = new ArrayList<AttributeValue>();
+        for (var item : items) {
+            appended.add(values.get(indexOf(project, section, item)));
+        }
+
+        final var names = new HashMap<String, String>();
+        final var path = sectionPath(section, names) + ".#items";
+        names.put("#items", ITEMS);
+        names.put("#key", tableModel.hashKey().name());
+
+        var size = values.size() - appended.size();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(project, section, new UpdateItemRequest()
+                        .withTableName(tableName)
+                        .withKey(key(project))
+                        .withUpdateExpression(
+                                "SET " + path + " = list_append(if_not_exists(" + path + ", :empty), :items)")
+                        .withConditionExpression("attribute_exists(#key) AND "
+                                + (size == 0 ? "(attribute_not_exists(" + path + ") OR " : "(")
+                                + "size(" + path + ") = :size)")
+                        .withExpressionAttributeNames(names)
+                        .withExpressionAttributeValues(Map.of(
+                                ":empty", new AttributeValue().withL(List.of()),
+                                ":items", new AttributeValue().withL(appended),
+                                ":size", new AttributeValue().withN(Integer.toString(size)))));
+                break;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new PortalException("项目已被同时修改，请稍后重试");
+                }
+
+                final var stored = read(project, section);
+                for (var value : appended) {
+                    if (indexOf(stored, section, value.getM()) >= 0) {
+                        throw new PortalException("复制项已被同时添加，请刷新后重试");
+                    }
+                }
+                size = stored.size();
+            }
+        }
+
+        final var delta = new HashMap<String, Integer>();
+        appended.forEach(value -> ProjectRollup.count(delta, value, 1));
+        rollup.apply(project, delta);
+    }
+
+    /**
+     * Removes the stored items, taking the current items of the project before they are removed from it.
+     */
+    public void remove(Project project, Section section, Collection<?> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        final var all = itemValues(project, section);
+        final var removed = new ArrayList<Map<String, AttributeValue>>();
+        for (var item : items) {
+            removed.add(all.get(indexOf(project, section, item)).getM());
+        }
+
+        var stored = all;
+        for (int attempt = 1; ; attempt++) {
+            final var names = new HashMap<String, String>();
+            final var values = new HashMap<String, AttributeValue>();
+            final var remove = new StringJoiner(", ", "REMOVE ", "");
+            final var conditions = new StringJoiner(" AND ");
+            final var indexes = new ArrayList<Integer>();
+            for (int i = 0; i < removed.size(); i++) {
+                final var index = indexOf(stored, section, removed.get(i));
+                if (index < 0) {
+                    continue;
+                }
+
+                indexes.add(index);
+                final var path = itemPath(section, index, names);
+                remove.add(path);
+                conditions.add(identityCondition(section, path, removed.get(i), names, values, "r" + i));
+            }
+
+            if (conditions.length() == 0) {
+                return;
+            }
+
+            try {
+                final var old = write(project, section, new UpdateItemRequest()
+                        .withTableName(tableName)
+                        .withKey(key(project))
+                        .withUpdateExpression(remove.toString())
+                        .withConditionExpression(conditions.toString())
+                        .withExpressionAttributeNames(names)
+                        .withExpressionAttributeValues(values));
+
+                final var delta = new HashMap<String, Integer>();
+                indexes.forEach(index -> ProjectRollup.count(delta, old.get(index), -1));
+                rollup.apply(project, delta);
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new PortalException("项目已被同时修改，请稍后重试");
+                }
+                stored = read(project, section);
+            }
+        }
+    }
+
+    /**
+     * @return the stored items of the section before the write.
+     */
+    private List<AttributeValue> write(Project project, Section section, UpdateItemRequest request) {
+        final Map<String, AttributeValue> old;
+        try {
+            old = amazonDynamoDB.updateItem(request.withReturnValues(ReturnValue.ALL_OLD)).getAttributes();
+        } finally {
+            cache.evict(project.getId());
+        }
+
+        final var sectionValue = old == null ? null : old.get(tableModel.field(section.property).name());
+        if (sectionValue == null || !sectionValue.getM().containsKey(ITEMS)) {
+            return List.of();
+        }
+        return sectionValue.getM().get(ITEMS).getL();
+    }
+
+    private static void countState(Map<String, Integer> delta, AttributeValue state, int count) {
+        if (state != null) {
+            delta.merge(state.getS(), count, Integer::sum);
+        }
+    }
+
+    private List<AttributeValue> read(Project project, Section section) {
+        final var names = new HashMap<String, String>();
+        final var path = sectionPath(section, names) + ".#items";
+        names.put("#items", ITEMS);
+
+        final var item = amazonDynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(key(project))
+                .withProjectionExpression(path)
+                .withExpressionAttributeNames(names)
+                .withConsistentRead(true)).getItem();
+        if (item == null || !item.containsKey(names.get("#s"))) {
+            return List.of();
+        }
+
+        final var items = item.get(names.get("#s")).getM().get(ITEMS);
+        return items == null ? List.of() : items.getL();
+    }
+
+    private int indexOf(List<AttributeValue> stored, Section section, Map<String, AttributeValue> value) {
+        for (int i = 0; i < stored.size(); i++) {
+            final var candidate = stored.get(i).getM();
+            boolean same = true;
+            for (var attribute : section.identity) {
+                same &= Objects.equals(candidate.get(attribute), value.get(attribute));
+            }
+            if (same) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(Project project, Section section, Object item) {
+        final var items = section.items.apply(project);
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i) == item) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Item is not in project " + project.getName());
+    }
+
+    private List<AttributeValue> itemValues(Project project, Section section) {
+        return tableModel.convert(project)
+                .get(tableModel.field(section.property).name())
+                .getM()
+                .get(ITEMS)
+                .getL();
+    }
+
+    private Map<String, AttributeValue> key(Project project) {
+        final var hashKey = tableModel.hashKey();
+        return Map.of(hashKey.name(), hashKey.convert(hashKey.get(project)));
+    }
+
+    private String sectionPath(Section section, Map<String, String> names) {
+        names.put("#s", tableModel.field(section.property).name());
+        return "#s";
+    }
+
+    private String itemPath(Section section, int index, Map<String, String> names) {
+        names.put("#items", ITEMS);
+        return sectionPath(section, names) + ".#items[" + index + "]";
+    }
+
+    private String identityCondition(
+            Section section, String path, Map<String, AttributeValue> value,
+            Map<String, String> names, Map<String, AttributeValue> values, String suffix) {
+        final var condition = new StringJoiner(" AND ");
+        for (var attribute : section.identity) {
+            final var name = "#" + attribute;
+            names.put(name, attribute);
+            if (value.containsKey(attribute)) {
+                final var placeholder = ":" + attribute + suffix;
+                values.put(placeholder, value.get(attribute));
+                condition.add(path + "." + name + " = " + placeholder);
+            } else {
+                condition.add("attribute_not_exists(" + path + "." + name + ")");
+            }
+        }
+        return condition.toString();
+    }
+
+    /**
+     * Attributes of an item to write, with the values they had when the write was requested.
+     */
+    static final class ItemUpdate {
+        private final int index;
+        private final Map<String, AttributeValue> values;
+        private final Set<String> attributes;
+
+        private ItemUpdate(int index, Map<String, AttributeValue> values, Set<String> attributes) {
+            this.index = index;
+            this.values = values;
+            this.attributes = attributes;
+        }
+
+        /**
+         * Takes the attributes of a later snapshot of the same item, keeping the others as they are.
+         */
+        void merge(ItemUpdate later) {
+            for (var attribute : later.attributes) {
+                final var value = later.values.get(attribute);
+                if (value == null) {
+                    values.remove(attribute);
+                } else {
+                    values.put(attribute, value);
+                }
+                attributes.add(attribute);
+            }
+        }
+    }
+}
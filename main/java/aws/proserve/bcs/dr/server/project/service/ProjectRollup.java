@@ -0,0 +1,410 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.exception.PortalException;
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.project.dto.ImmutableRollupSummary;
+import aws.proserve.bcs.dr.server.project.dto.RollupSummary;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.inject.Named;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Counts the items of each project by state, in <code>rollup_&lt;STATE&gt;</code> attributes of the project, and of
+ * all projects by type and state, in the record {@link #GLOBAL_ID} of the project table.
+ * <p>
+ * Counters are changed by deltas as items are written, so that the totals are read in a single request. The delta of a
+ * project and of the totals are added in one transaction, so they stay in step; a delta lost because the write of
+ * items succeeded but not the transaction is corrected by {@link #rebuild()}, which runs every
+ * <code>reconcileMillis</code>, and at startup if the totals have never been built, such as for projects stored
+ * before the counters were kept.
+ */
+@Named
+public class ProjectRollup {
+    static final String GLOBAL_ID = "_rollup";
+    static final String PREFIX = "rollup_";
+
+    /**
+     * The pseudo state counting all items.
+     */
+    static final String ITEMS = "items";
+
+    /**
+     * States whose counters are read by list views.
+     */
+    static final List<String> STATES = List.of("REPLICATING", "REPLICATED", "FAILED", "STOPPED");
+
+    /**
+     * Counts the writes of the totals.
+     */
+    private static final String WRITES = "rollupWrites";
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String FAILED = "FAILED";
+    private static final String REPLICATING = "REPLICATING";
+    static final String MIXED = "参考单项状态";
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final DynamoDBMapperTableModel<Project> tableModel;
+    private final String tableName;
+
+    ProjectRollup(
+            AmazonDynamoDB amazonDynamoDB,
+            DynamoDBMapper dbMapper) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.tableModel = dbMapper.getTableModel(Project.class);
+        this.tableName = dbMapper.generateCreateTableRequest(Project.class).getTableName();
+    }
+
+    /**
+     * Adds the delta of each state, and of {@link #ITEMS}, to the counters of the project and to the totals, both in
+     * one transaction.
+     */
+    public void apply(Project project, Map<String, Integer> delta) {
+        final var changed = new TreeMap<>(delta);
+        changed.values().removeIf(count -> count == 0);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        final var hashKey = tableModel.hashKey();
+        final var names = new HashMap<String, String>();
+        final var values = new HashMap<String, AttributeValue>();
+        final var expression = addExpression(changed, state -> PREFIX + state, names, values);
+        names.put("#key", hashKey.name());
+        try {
+            amazonDynamoDB.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(
+                    new TransactWriteItem().withUpdate(new Update()
+                            .withTableName(tableName)
+                            .withKey(Map.of(hashKey.name(), hashKey.convert(hashKey.get(project))))
+                            .withUpdateExpression(expression)
+                            .withConditionExpression("attribute_exists(#key)")
+                            .withExpressionAttributeNames(names)
+                            .withExpressionAttributeValues(values)),
+                    new TransactWriteItem().withUpdate(totals(project.getType(), changed))));
+        } catch (TransactionCanceledException e) {
+            if (e.getCancellationReasons() != null && e.getCancellationReasons().stream()
+                    .anyMatch(reason -> "ConditionalCheckFailed".equals(reason.getCode()))) {
+                log.debug("Project {} was deleted, skip its rollup", project.getName());
+            } else {
+                log.warn("Unable to update rollup of project " + project.getName(), e);
+            }
+        } catch (Exception e) {
+            log.warn("Unable to update rollup of project " + project.getName(), e);
+        }
+    }
+
+    /**
+     * Takes the items of a deleted project off the totals.
+     */
+    public void removed(Project project) {
+        final var delta = new TreeMap<String, Integer>();
+        count(project).forEach((state, count) -> delta.put(state, -count));
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        final var update = totals(project.getType(), delta);
+        try {
+            amazonDynamoDB.updateItem(new UpdateItemRequest()
+                    .withTableName(update.getTableName())
+                    .withKey(update.getKey())
+                    .withUpdateExpression(update.getUpdateExpression())
+                    .withExpressionAttributeNames(update.getExpressionAttributeNames())
+                    .withExpressionAttributeValues(update.getExpressionAttributeValues()));
+        } catch (Exception e) {
+            log.warn("Unable to update rollup of all projects", e);
+        }
+    }
+
+    /**
+     * Also counts the write in {@link #WRITES}, so that a rebuild can tell whether the totals changed meanwhile.
+     */
+    private Update totals(Component type, Map<String, Integer> delta) {
+        final var names = new HashMap<String, String>();
+        final var values = new HashMap<String, AttributeValue>();
+        names.put("#writes", WRITES);
+        values.put(":one", new AttributeValue().withN("1"));
+        return new Update()
+                .withTableName(tableName)
+                .withKey(globalKey())
+                .withUpdateExpression(addExpression(delta, state -> globalName(type, state), names, values)
+                        + ", #writes :one")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+    }
+
+    private String addExpression(
+            Map<String, Integer> delta, Function<String, String> naming,
+            Map<String, String> names, Map<String, AttributeValue> values) {
+        final var add = new StringJoiner(", ", "ADD ", "");
+        var i = 0;
+        for (var entry : delta.entrySet()) {
+            names.put("#a" + i, naming.apply(entry.getKey()));
+            values.put(":a" + i, new AttributeValue().withN(String.valueOf(entry.getValue())));
+            add.add("#a" + i + " :a" + i);
+            i++;
+        }
+        return add.toString();
+    }
+
+    private Map<String, AttributeValue> globalKey() {
+        return Map.of(tableModel.hashKey().name(), new AttributeValue(GLOBAL_ID));
+    }
+
+    /**
+     * @return number of items of each type in each state, and in {@link #ITEMS}.
+     */
+    public RollupSummary summary() {
+        final var item = amazonDynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(globalKey())).getItem();
+
+        final var counts = new TreeMap<Component, Map<String, Long>>();
+        if (item != null) {
+            item.forEach((name, value) -> {
+                if (!name.startsWith(PREFIX) || value.getN() == null) {
+                    return;
+                }
+
+                final var typeAndState = name.substring(PREFIX.length()).split("_", 2);
+                counts.computeIfAbsent(Component.valueOf(typeAndState[0]), type -> new TreeMap<>())
+                        .put(typeAndState[1], Long.parseLong(value.getN()));
+            });
+        }
+
+        return ImmutableRollupSummary.builder()
+                .counts(counts)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void rebuildIfMissing() {
+        final var item = amazonDynamoDB.getItem(new GetItemRequest()
+                .withTableName(tableName)
+                .withKey(globalKey())
+                .withConsistentRead(true)).getItem();
+        if (item == null) {
+            log.info("No rollup of all projects yet, rebuild it");
+            reconcile();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${portal.projects.rollup.reconcileMillis:3600000}",
+            fixedDelayString = "${portal.projects.rollup.reconcileMillis:3600000}")
+    void reconcile() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Unable to rebuild rollup of all projects", e);
+        }
+    }
+
+    /**
+     * Recounts the items of every project, and the totals.
+     * <p>
+     * The counters of a project are only set if they have not changed since the project was read, and the totals
+     * only if no delta was added to them during the rebuild, which is started again otherwise.
+     */
+    public synchronized void rebuild() {
+        for (int attempt = 1; ; attempt++) {
+            final var writes = amazonDynamoDB.getItem(new GetItemRequest()
+                    .withTableName(tableName)
+                    .withKey(globalKey())
+                    .withProjectionExpression("#writes")
+                    .withExpressionAttributeNames(Map.of("#writes", WRITES))
+                    .withConsistentRead(true)).getItem();
+            final var sums = new HashMap<String, Long>();
+            final var scan = new ScanRequest(tableName)
+                    .withFilterExpression("attribute_exists(#type)")
+                    .withExpressionAttributeNames(Map.of("#type", tableModel.field("type").name()));
+            Map<String, AttributeValue> lastKey;
+            do {
+                final var result = amazonDynamoDB.scan(scan);
+                for (var item : result.getItems()) {
+                    rebuild(item, sums);
+                }
+
+                lastKey = result.getLastEvaluatedKey();
+                scan.setExclusiveStartKey(lastKey);
+            } while (lastKey != null && !lastKey.isEmpty());
+
+            final var totals = new HashMap<>(globalKey());
+            sums.forEach((name, sum) -> totals.put(name, new AttributeValue().withN(String.valueOf(sum))));
+            final var written = writes == null ? null : writes.get(WRITES);
+            if (written != null) {
+                totals.put(WRITES, written);
+            }
+
+            try {
+                amazonDynamoDB.putItem(new PutItemRequest()
+                        .withTableName(tableName)
+                        .withItem(totals)
+                        .withConditionExpression(written == null ? "attribute_not_exists(#writes)" : "#writes = :w")
+                        .withExpressionAttributeNames(Map.of("#writes", WRITES))
+                        .withExpressionAttributeValues(written == null ? null : Map.of(":w", written)));
+                log.info("Rebuilt rollup of {} counters", sums.size());
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new PortalException("项目统计持续变化，请稍后重试");
+                }
+                log.info("Totals changed during rebuild, rebuild them again");
+            }
+        }
+    }
+
+    /**
+     * Sets the counters of the stored project, conditioned on those read along with it.
+     */
+    private void rebuild(Map<String, AttributeValue> item, Map<String, Long> sums) {
+        final var hashKey = tableModel.hashKey();
+        var stored = item;
+        for (int attempt = 1; stored != null; attempt++) {
+            final var project = tableModel.unconvert(stored);
+            if (Section.of(project.getType()) == null) {
+                return;
+            }
+
+            final var names = new HashMap<String, String>();
+            final var values = new HashMap<String, AttributeValue>();
+            final var set = new StringJoiner(", ", "SET ", "");
+            final var conditions = new StringJoiner(" AND ");
+            final var counts = count(project);
+            final var states = new LinkedHashSet<>(STATES);
+            states.add(ITEMS);
+            states.addAll(counts.keySet());
+            var i = 0;
+            for (var state : states) {
+                names.put("#a" + i, PREFIX + state);
+                values.put(":a" + i, new AttributeValue().withN(String.valueOf(counts.getOrDefault(state, 0))));
+                set.add("#a" + i + " = :a" + i);
+
+                final var old = stored.get(PREFIX + state);
+                if (old == null) {
+                    conditions.add("attribute_not_exists(#a" + i + ")");
+                } else {
+                    values.put(":o" + i, old);
+                    conditions.add("#a" + i + " = :o" + i);
+                }
+                i++;
+            }
+
+            final var key = Map.of(hashKey.name(), stored.get(hashKey.name()));
+            try {
+                amazonDynamoDB.updateItem(new UpdateItemRequest()
+                        .withTableName(tableName)
+                        .withKey(key)
+                        .withUpdateExpression(set.toString())
+                        .withConditionExpression(conditions.toString())
+                        .withExpressionAttributeNames(names)
+                        .withExpressionAttributeValues(values));
+                states.forEach(state -> sums.merge(globalName(project.getType(), state),
+                        (long) counts.getOrDefault(state, 0), Long::sum));
+                return;
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new PortalException("项目 " + project.getName() + " 持续变化，请稍后重试");
+                }
+                stored = amazonDynamoDB.getItem(new GetItemRequest()
+                        .withTableName(tableName)
+                        .withKey(key)
+                        .withConsistentRead(true)).getItem();
+            }
+        }
+    }
+
+    /**
+     * @return number of items of the project in each state, and in {@link #ITEMS}.
+     */
+    public Map<String, Integer> count(Project project) {
+        final var section = Section.of(project.getType());
+        final var counts = new TreeMap<String, Integer>();
+        if (section == null) {
+            return counts;
+        }
+
+        final var sectionValue = tableModel.convert(project).get(tableModel.field(section.property).name());
+        if (sectionValue == null || !sectionValue.getM().containsKey(ProjectItemWriter.ITEMS)) {
+            return counts;
+        }
+
+        for (var value : sectionValue.getM().get(ProjectItemWriter.ITEMS).getL()) {
+            count(counts, value, 1);
+        }
+        return counts;
+    }
+
+    /**
+     * Adds <code>delta</code> to the counters of the state of the stored item, and of {@link #ITEMS}.
+     */
+    static void count(Map<String, Integer> counts, AttributeValue item, int delta) {
+        final var state = item.getM().get(ProjectItemWriter.STATE);
+        if (state != null) {
+            counts.merge(state.getS(), delta, Integer::sum);
+        }
+        counts.merge(ITEMS, delta, Integer::sum);
+    }
+
+    /**
+     * @return the state of the project as a whole.
+     */
+    public String state(Project project) {
+        return Section.of(project.getType()) == null ? MIXED : state(count(project));
+    }
+
+    /**
+     * @return <code>FAILED</code> if any item failed, <code>REPLICATING</code> if any is replicating, the state
+     * shared by all items otherwise, or {@value #MIXED} if they differ.
+     */
+    static String state(Map<String, ? extends Number> counts) {
+        final var states = new TreeMap<String, Number>(counts);
+        states.remove(ITEMS);
+        states.values().removeIf(count -> count.longValue() <= 0);
+
+        if (states.containsKey(FAILED)) {
+            return FAILED;
+        }
+        if (states.containsKey(REPLICATING)) {
+            return REPLICATING;
+        }
+        if (states.size() == 1) {
+            return states.firstKey();
+        }
+        return states.isEmpty() ? "" : MIXED;
+    }
+
+    private static String globalName(Component type, String state) {
+        return PREFIX + type.name() + "_" + state;
+    }
+}
@@ -7,6 +7,7 @@ import aws.proserve.bcs.ce.dto.CreateCloudEndureProjectRequest;
 import aws.proserve.bcs.ce.service.CloudEndureStateMachineService;
 import aws.proserve.bcs.cem.dto.CreateCemProjectRequest;
 import aws.proserve.bcs.cem.service.CemService;
+import aws.proserve.bcs.dr.exception.PortalException;
 import aws.proserve.bcs.dr.project.Component;
 import aws.proserve.bcs.dr.project.Project;
 import aws.proserve.bcs.dr.project.ProjectFinder;
@@ -18,6 +19,8 @@ import aws.proserve.bcs.dr.server.dynamo.dto.CreateDynamoProjectRequest;
 import aws.proserve.bcs.dr.server.dynamo.service.DynamoService;
 import aws.proserve.bcs.dr.server.dbdump.dto.CreateDbDumpProjectRequest;
 import aws.proserve.bcs.dr.server.dbdump.service.DbDumpService;
+import aws.proserve.bcs.dr.server.project.dto.ProjectPage;
+import aws.proserve.bcs.dr.server.project.dto.RollupSummary;
 import aws.proserve.bcs.dr.server.s3.dto.CreateS3ProjectRequest;
 import aws.proserve.bcs.dr.server.s3.service.S3Service;
 import aws.proserve.bcs.dr.server.vpc.dto.CreateVpcProjectRequest;
@@ -28,8 +31,12 @@ import java.util.List;
 
 @Named
 public class ProjectService {
+    public static final int MAX_PAGE_SIZE = 100;
 
     private final ProjectFinder finder;
+    private final ProjectCache cache;
+    private final ProjectSummaryReader summaryReader;
+    private final ProjectRollup rollup;
     private final BootService bootService;
     private final CemService cemService;
     private final CloudEndureStateMachineService cloudEndureService;
@@ -41,6 +48,9 @@ public class ProjectService {
 
     ProjectService(
             ProjectFinder finder,
+            ProjectCache cache,
+            ProjectSummaryReader summaryReader,
+            ProjectRollup rollup,
             BootService bootService,
             CemService cemService,
             CloudEndureStateMachineService cloudEndureService,
@@ -50,6 +60,9 @@ public class ProjectService {
             S3Service s3Service,
             VpcService vpcService) {
         this.finder = finder;
+        this.cache = cache;
+        this.summaryReader = summaryReader;
+        this.rollup = rollup;
         this.bootService = bootService;
         this.cemService = cemService;
         this.cloudEndureService = cloudEndureService;
@@ -61,54 +74,86 @@ public class ProjectService {
     }
 
     public Project findOne(String id) {
-        return finder.findOne(id);
+        return cache.find(id, finder::findOne);
+    }
+
+    /**
+     * @return the version of the project, see {@link ProjectCache#version}.
+     */
+    public String getVersion(String id) {
+        return cache.version(id, finder::findOne);
+    }
+
+    /**
+     * @return the project along with its version, see {@link ProjectCache#findVersioned}.
+     */
+    public ProjectCache.Versioned findVersioned(String id) {
+        return cache.findVersioned(id, finder::findOne);
+    }
+
+    /**
+     * @param limit at most {@link #MAX_PAGE_SIZE}.
+     */
+    public ProjectPage findPage(Component type, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new PortalException("每页项目数应在 1 到 " + MAX_PAGE_SIZE + " 之间");
+        }
+        return summaryReader.findPage(type, limit, cursor);
+    }
+
+    public RollupSummary getRollup() {
+        return rollup.summary();
+    }
+
+    public void rebuildRollup() {
+        rollup.rebuild();
     }
 
     public List<Project> findAllBoot() {
         final var projects = finder.findByType(Component.Boot);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllCem() {
         final var projects = finder.findByType(Component.CloudEndureManager);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllCloudEndure() {
         final var projects = finder.findByType(Component.CloudEndure);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllDbDump(Component component) {
         final var projects = finder.findByType(component);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllDbReplica(Component component) {
         final var projects = finder.findByType(component);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllS3() {
         final var projects = finder.findByType(Component.S3);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllVpc() {
         final var projects = finder.findByType(Component.VPC);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
     public List<Project> findAllDynamo() {
         final var projects = finder.findByType(Component.DynamoDB);
-        projects.forEach(project -> project.setState("参考单项状态"));
+        projects.forEach(project -> project.setState(rollup.state(project)));
         return projects;
     }
 
@@ -178,5 +223,7 @@ public class ProjectService {
                 vpcService.delete(project);
                 break;
         }
+        cache.evict(project.getId());
+        rollup.removed(project);
     }
 }
@@ -0,0 +1,103 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.server.cache.service.BoundedCache;
+import aws.proserve.bcs.dr.server.cache.service.BoundedCacheManager;
+import aws.proserve.bcs.dr.server.cache.service.Caches;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.inject.Named;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GETs of views combining a project with the AWS inventory.
+ * <p>
+ * A view is kept as a snapshot, tagged with the hash of its JSON form, for as long as the project keeps its version
+ * and the snapshot lives in the cache. A request whose <code>If-None-Match</code> matches the snapshot is answered
+ * with 304, neither reading AWS nor serializing anything.
+ */
+@Named
+public class ProjectSnapshots {
+
+    private final BoundedCache cache;
+    private final ObjectMapper mapper;
+    private final ProjectService projectService;
+
+    ProjectSnapshots(
+            BoundedCacheManager cacheManager,
+            ObjectMapper mapper,
+            ProjectService projectService) {
+        this.cache = cacheManager.getCache(Caches.SNAPSHOTS);
+        this.mapper = mapper;
+        this.projectService = projectService;
+    }
+
+    /**
+     * @param view   names the view of the project.
+     * @param loader reads the view when there is no current snapshot.
+     * @return the view with its ETag, or <code>null</code> once a 304 is sent.
+     */
+    public <T> ResponseEntity<T> get(WebRequest request, String view, String projectId, Supplier<T> loader) {
+        final var version = projectService.getVersion(projectId);
+        final var key = view + "/" + projectId;
+
+        final var cached = cache.get(key, Snapshot.class);
+        if (cached != null && cached.version.equals(version)) {
+            if (request.checkNotModified(cached.etag)) {
+                return null;
+            }
+
+            @SuppressWarnings("unchecked") final var body = (T) cached.body;
+            return ResponseEntity.ok().eTag(cached.etag).body(body);
+        }
+
+        final var body = loader.get();
+        final String etag;
+        try {
+            etag = etag(mapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (version != null) {
+            cache.put(key, new Snapshot(version, etag, body));
+        }
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * @return a strong ETag hashed from the content.
+     */
+    static String etag(byte[] content) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final String version;
+        private final String etag;
+        private final Object body;
+
+        private Snapshot(String version, String etag, Object body) {
+            this.version = version;
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+}
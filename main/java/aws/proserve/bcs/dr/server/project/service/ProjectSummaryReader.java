@@ -0,0 +1,130 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.project.dto.ImmutableProjectPage;
+import aws.proserve.bcs.dr.server.project.dto.ImmutableProjectSummary;
+import aws.proserve.bcs.dr.server.project.dto.ProjectPage;
+import aws.proserve.bcs.dr.server.project.dto.ProjectSummary;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Lists projects of a type page by page, reading only the attributes shown in a list view. Item counts come from
+ * the counters kept by {@link ProjectRollup}.
+ */
+@Named
+public class ProjectSummaryReader {
+    private static final String[] PROPERTIES = {"id", "name", "type", "sourceRegion", "targetRegion"};
+
+    /**
+     * The projects of all types evaluated by a request, whatever the size of the page, so that a sparse type does not
+     * take a request per project.
+     */
+    private static final int SCAN_PAGE_SIZE = 100;
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final DynamoDBMapperTableModel<Project> tableModel;
+    private final String tableName;
+
+    ProjectSummaryReader(
+            AmazonDynamoDB amazonDynamoDB,
+            DynamoDBMapper dbMapper) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.tableModel = dbMapper.getTableModel(Project.class);
+        this.tableName = dbMapper.generateCreateTableRequest(Project.class).getTableName();
+    }
+
+    /**
+     * @param cursor where the page starts, <code>null</code> for the first page.
+     * @return the projects, with the ID of the last one as the cursor of the next page, if any.
+     */
+    public ProjectPage findPage(Component type, int limit, String cursor) {
+        final var names = new HashMap<String, String>();
+        final var projection = new StringJoiner(", ");
+        for (int i = 0; i < PROPERTIES.length; i++) {
+            names.put("#p" + i, tableModel.field(PROPERTIES[i]).name());
+            projection.add("#p" + i);
+        }
+        final var counters = new ArrayList<>(ProjectRollup.STATES);
+        counters.add(ProjectRollup.ITEMS);
+        for (int i = 0; i < counters.size(); i++) {
+            names.put("#r" + i, ProjectRollup.PREFIX + counters.get(i));
+            projection.add("#r" + i);
+        }
+
+        final var hashKey = tableModel.hashKey().name();
+        final var typeField = tableModel.<Component>field(PROPERTIES[2]);
+        final var summaries = new ArrayList<ProjectSummary>();
+        var startKey = cursor == null ? null : Map.of(hashKey, new AttributeValue(cursor));
+        var truncated = false;
+        do {
+            final var result = amazonDynamoDB.scan(new ScanRequest()
+                    .withTableName(tableName)
+                    .withFilterExpression("#p2 = :type")
+                    .withProjectionExpression(projection.toString())
+                    .withExpressionAttributeNames(names)
+                    .withExpressionAttributeValues(Map.of(":type", typeField.convert(type)))
+                    .withExclusiveStartKey(startKey)
+                    .withLimit(SCAN_PAGE_SIZE));
+            final var items = result.getItems();
+            for (int i = 0; i < items.size() && summaries.size() < limit; i++) {
+                summaries.add(summarize(items.get(i)));
+                truncated = i < items.size() - 1;
+            }
+            startKey = result.getLastEvaluatedKey();
+        } while (startKey != null && !startKey.isEmpty() && summaries.size() < limit);
+
+        final var more = truncated || startKey != null && !startKey.isEmpty();
+        return ImmutableProjectPage.builder()
+                .projects(summaries)
+                .cursor(more && !summaries.isEmpty() ? summaries.get(summaries.size() - 1).getId() : null)
+                .build();
+    }
+
+    private ProjectSummary summarize(Map<String, AttributeValue> item) {
+        final var attributes = new HashMap<String, AttributeValue>();
+        final var stateCounts = new TreeMap<String, Integer>();
+        var itemCount = 0;
+        for (var entry : item.entrySet()) {
+            if (!entry.getKey().startsWith(ProjectRollup.PREFIX)) {
+                attributes.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            final var state = entry.getKey().substring(ProjectRollup.PREFIX.length());
+            final var count = Integer.parseInt(entry.getValue().getN());
+            if (state.equals(ProjectRollup.ITEMS)) {
+                itemCount = count;
+            } else if (count > 0) {
+                stateCounts.put(state, count);
+            }
+        }
+
+        final var project = tableModel.unconvert(attributes);
+        return ImmutableProjectSummary.builder()
+                .id(project.getId())
+                .name(project.getName())
+                .type(project.getType())
+                .sourceRegion(project.getSourceRegion() == null ? null : project.getSourceRegion().getName())
+                .targetRegion(project.getTargetRegion() == null ? null : project.getTargetRegion().getName())
+                .itemCount(itemCount)
+                .stateCounts(stateCounts)
+                .state(Section.of(project.getType()) == null ? ProjectRollup.MIXED : ProjectRollup.state(stateCounts))
+                .build();
+    }
+}
@@ -0,0 +1,209 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.project.service;
+
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.metric.service.Counter;
+import aws.proserve.bcs.dr.server.metric.service.Histogram;
+import aws.proserve.bcs.dr.server.metric.service.MetricService;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.ItemUpdate;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects state transitions of project items and writes them once per <code>window</code>.
+ * <p>
+ * All transitions of one project within a window are written by a single <code>UpdateItem</code>, the latest value
+ * of each attribute winning. The values are taken when a transition is requested, so transitions of the same project
+ * loaded by different requests are written together. A failed write is requested again after a backoff, up to
+ * <code>maxAttempts</code> times. Pending transitions are flushed on shutdown; those arriving afterwards are written
+ * at once.
+ */
+@Named
+public class ProjectWriteBehind {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final ProjectItemWriter itemWriter;
+    private final long windowMillis;
+    private final int maxAttempts;
+    private final Counter transitions;
+    private final Counter writes;
+    private final Counter failures;
+    private final Histogram flushTimer;
+    private final ScheduledExecutorService flusher;
+
+    private Map<Key, Batch> pending = new LinkedHashMap<>();
+    private volatile boolean closed;
+
+    ProjectWriteBehind(
+            ProjectItemWriter itemWriter,
+            MetricService metricService,
+            @Value("${portal.projects.writeBehind.windowMillis:200}") long windowMillis,
+            @Value("${portal.projects.writeBehind.maxAttempts:5}") int maxAttempts) {
+        this.itemWriter = itemWriter;
+        this.windowMillis = windowMillis;
+        this.maxAttempts = maxAttempts;
+        this.transitions = metricService.counter("project_write_behind_transitions");
+        this.writes = metricService.counter("project_write_behind_writes");
+        this.failures = metricService.counter("project_write_behind_failures");
+        this.flushTimer = metricService.timer("project_write_behind_flush_millis");
+
+        metricService.gauge("project_write_behind_pending", this::size);
+        metricService.gauge("project_write_behind_coalescing_ratio",
+                () -> writes.count() == 0 ? 0 : (double) transitions.count() / writes.count());
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("write-behind-"));
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the given attributes of an item of the project within the window.
+     */
+    public void update(Project project, Section section, Object item, String... attributes) {
+        transitions.increment();
+        if (closed) {
+            writes.increment();
+            itemWriter.update(project, section, item, attributes);
+            return;
+        }
+
+        final var update = itemWriter.snapshot(project, section, item, List.of(attributes));
+        synchronized (this) {
+            pending.computeIfAbsent(new Key(project.getId(), section), key -> new Batch())
+                    .add(project, ProjectItemWriter.identityOf(section, update), update);
+        }
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    void flush() {
+        final var now = System.currentTimeMillis();
+        final var batch = new LinkedHashMap<Key, Batch>();
+        synchronized (this) {
+            final var iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final var entry = iterator.next();
+                if (entry.getValue().dueAt <= now) {
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final var startAt = System.nanoTime();
+        batch.forEach((key, items) -> {
+            writes.increment();
+            try {
+                itemWriter.update(items.project, key.section, items.updates.values());
+            } catch (Exception e) {
+                retry(key, items, e);
+            }
+        });
+        flushTimer.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startAt));
+    }
+
+    /**
+     * Requests the failed writes again, before any transition requested since, after a delay drawn at random
+     * below an exponential bound.
+     */
+    private void retry(Key key, Batch failed, Exception e) {
+        failures.increment();
+        final var name = failed.project.getName();
+        if (closed || ++failed.attempts >= maxAttempts) {
+            log.error("Give up writing " + failed.updates.size() + " items of project " + name, e);
+            return;
+        }
+
+        log.warn("Unable to write {} items of project {}, attempt {}", failed.updates.size(), name,
+                failed.attempts, e);
+        final var bound = windowMillis << Math.min(failed.attempts, 10);
+        failed.dueAt = System.currentTimeMillis() + ThreadLocalRandom.current().nextLong(bound / 2, bound + 1);
+        synchronized (this) {
+            final var later = pending.put(key, failed);
+            if (later != null) {
+                later.updates.forEach((identity, update) -> failed.add(later.project, identity, update));
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        closed = true;
+        flusher.shutdownNow();
+        synchronized (this) {
+            pending.values().forEach(batch -> batch.dueAt = 0);
+        }
+        flush();
+    }
+
+    /**
+     * The pending updates of the items of a project section, by item identity.
+     */
+    private static final class Batch {
+        private final Map<List<AttributeValue>, ItemUpdate> updates = new LinkedHashMap<>();
+        private Project project;
+        private int attempts;
+        private long dueAt;
+
+        private void add(Project project, List<AttributeValue> identity, ItemUpdate update) {
+            this.project = project;
+            final var existing = updates.get(identity);
+            if (existing == null) {
+                updates.put(identity, update);
+            } else {
+                existing.merge(update);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String projectId;
+        private final Section section;
+
+        private Key(String projectId, Section section) {
+            this.projectId = projectId;
+            this.section = section;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final var key = (Key) o;
+            return projectId.equals(key.projectId) && section == key.section;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * projectId.hashCode() + section.hashCode();
+        }
+    }
+}
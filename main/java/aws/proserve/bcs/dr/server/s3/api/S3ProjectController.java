@@ -7,9 +7,15 @@ import aws.proserve.bcs.dr.aws.AwsBucket;
 import aws.proserve.bcs.dr.dto.Response;
 import aws.proserve.bcs.dr.dto.request.DeleteItemsRequest;
 import aws.proserve.bcs.dr.s3.AwsBucketItem;
+import aws.proserve.bcs.dr.server.aws.api.JsonArrayStream;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
 import aws.proserve.bcs.dr.server.project.service.ProjectService;
+import aws.proserve.bcs.dr.server.project.service.ProjectSnapshots;
 import aws.proserve.bcs.dr.server.s3.dto.ManageS3ItemRequest;
+import aws.proserve.bcs.dr.server.s3.dto.ManageS3ItemsRequest;
 import aws.proserve.bcs.dr.server.s3.service.S3Service;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,6 +25,8 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/s3/projects")
@@ -26,12 +34,18 @@ class S3ProjectController {
 
     private final S3Service service;
     private final ProjectService projectService;
+    private final ProjectSnapshots snapshots;
+    private final ObjectMapper mapper;
 
     S3ProjectController(
             S3Service service,
-            ProjectService projectService) {
+            ProjectService projectService,
+            ProjectSnapshots snapshots,
+            ObjectMapper mapper) {
         this.service = service;
         this.projectService = projectService;
+        this.snapshots = snapshots;
+        this.mapper = mapper;
     }
 
     @GetMapping("/{projectId}/awsBuckets")
@@ -40,9 +54,23 @@ class S3ProjectController {
         return ResponseEntity.ok(service.getAwsBuckets());
     }
 
+    /**
+     * Streams the indexed buckets.
+     */
+    @GetMapping("/{projectId}/awsBuckets/stream")
+    ResponseEntity<StreamingResponseBody> streamAwsBuckets(@PathVariable String projectId) {
+        projectService.findOne(projectId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new JsonArrayStream<AwsBucket>(mapper, service::forEachAwsBucket));
+    }
+
     @GetMapping("/{projectId}/awsBucketItems")
-    ResponseEntity<AwsBucketItem[]> getAwsBucketItems(@PathVariable String projectId) {
-        return ResponseEntity.ok(service.getAwsBucketItems(projectService.findOne(projectId)));
+    ResponseEntity<AwsBucketItem[]> getAwsBucketItems(
+            @PathVariable String projectId,
+            WebRequest request) {
+        return snapshots.get(request, "awsBucketItems", projectId,
+                () -> service.getAwsBucketItems(projectService.findOne(projectId)));
     }
 
     @PutMapping("/{projectId}/items")
@@ -53,6 +81,16 @@ class S3ProjectController {
         return ResponseEntity.accepted().body(Response.SUCCESS);
     }
 
+    /**
+     * Adds the valid items at once, reporting what became of each.
+     */
+    @PutMapping("/{projectId}/items/bulk")
+    ResponseEntity<ItemOutcome[]> addBulkItems(
+            @PathVariable String projectId,
+            @RequestBody ManageS3ItemsRequest request) {
+        return ResponseEntity.ok(service.addItems(projectService.findOne(projectId), request.getItems()));
+    }
+
     @DeleteMapping("/{projectId}/items")
     ResponseEntity<Response> deleteItems(
             @PathVariable String projectId,
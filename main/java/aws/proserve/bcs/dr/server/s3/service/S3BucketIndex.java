@@ -0,0 +1,173 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.s3.service;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.Region;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers the region of every bucket of the account.
+ * <p>
+ * The bucket list is re-read at most every <code>refreshSeconds</code>. Only buckets that are new since the last
+ * refresh are located, on the bounded inventory executor, at most <code>parallelism</code> at a time; deleted
+ * buckets are dropped from the index. Once the index has been built, readers keep using it while it is refreshed.
+ */
+@Named
+public class S3BucketIndex {
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final AmazonS3 s3;
+    private final ExecutorService executor;
+    private final long refreshMillis;
+    private final int parallelism;
+    private final ReentrantLock refreshing = new ReentrantLock();
+
+    private final ConcurrentMap<String, String> regions = new ConcurrentHashMap<>();
+    private volatile List<String> buckets = List.of();
+    private volatile long refreshedAt;
+
+    S3BucketIndex(
+            AmazonS3 s3,
+            @Named("inventoryExecutor") ExecutorService executor,
+            @Value("${portal.s3.bucketIndex.refreshSeconds:60}") long refreshSeconds,
+            @Value("${portal.s3.bucketIndex.parallelism:4}") int parallelism) {
+        this.s3 = s3;
+        this.executor = executor;
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(refreshSeconds);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return regions of buckets in listing order, without buckets whose location is unknown.
+     */
+    public Map<String, String> getBucketRegions() {
+        refresh(false);
+
+        final var result = new LinkedHashMap<String, String>();
+        for (var bucket : buckets) {
+            final var region = regions.get(bucket);
+            if (region != null) {
+                result.put(bucket, region);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param fresh to locate the bucket again, ignoring the indexed region.
+     */
+    public String getRegion(String bucket, boolean fresh) {
+        if (!fresh) {
+            final var region = regions.get(bucket);
+            if (region != null) {
+                return region;
+            }
+        }
+
+        final var region = locate(bucket);
+        regions.put(bucket, region);
+        return region;
+    }
+
+    /**
+     * Waits for a running refresh only if forced or if the index has never been built.
+     */
+    public void refresh(boolean force) {
+        if (!force && isFresh()) {
+            return;
+        }
+        if (!force && refreshedAt > 0) {
+            if (!refreshing.tryLock()) {
+                return;
+            }
+        } else {
+            refreshing.lock();
+        }
+
+        try {
+            if (!force && isFresh()) {
+                return;
+            }
+            rebuild();
+        } finally {
+            refreshing.unlock();
+        }
+    }
+
+    private boolean isFresh() {
+        return System.currentTimeMillis() - refreshedAt < refreshMillis;
+    }
+
+    /**
+     * Locates the new buckets before the bucket list is replaced, so that readers see either index as a whole. If
+     * the executor is too busy to locate them all, the index is refreshed again at the next call.
+     */
+    private void rebuild() {
+        final var names = s3.listBuckets().stream().map(Bucket::getName).collect(Collectors.toList());
+        final var unknown = names.stream()
+                .filter(name -> !regions.containsKey(name))
+                .collect(Collectors.toList());
+        log.debug("Locate {} new buckets of {}", unknown.size(), names.size());
+
+        final var permits = new Semaphore(parallelism);
+        final var locations = new ArrayList<CompletableFuture<Void>>();
+        var complete = true;
+        try {
+            for (var name : unknown) {
+                permits.acquire();
+                try {
+                    locations.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            regions.put(name, locate(name));
+                        } catch (Exception e) {
+                            log.warn("Unable to locate bucket " + name, e);
+                        }
+                    }, executor).whenComplete((v, e) -> permits.release()));
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    log.warn("Inventory executor is busy, locate the other buckets at the next refresh");
+                    complete = false;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete = false;
+        } finally {
+            CompletableFuture.allOf(locations.toArray(CompletableFuture[]::new)).join();
+        }
+
+        buckets = names;
+        regions.keySet().retainAll(new HashSet<>(names));
+        if (complete) {
+            refreshedAt = System.currentTimeMillis();
+        }
+    }
+
+    private String locate(String bucket) {
+        return Region.fromValue(s3.getBucketLocation(bucket))
+                .toAWSRegion()
+                .getName();
+    }
+}
@@ -15,55 +15,81 @@ import aws.proserve.bcs.dr.s3.AwsBucketItem;
 import aws.proserve.bcs.dr.s3.ImmutableAwsBucketItem;
 import aws.proserve.bcs.dr.s3.S3Item;
 import aws.proserve.bcs.dr.s3.S3Project;
+import aws.proserve.bcs.dr.server.project.dto.ItemOutcome;
+import aws.proserve.bcs.dr.server.project.service.ItemValidator;
+import aws.proserve.bcs.dr.server.project.service.ProjectCache;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
 import aws.proserve.bcs.dr.server.s3.dto.CreateS3ProjectRequest;
 import aws.proserve.bcs.dr.server.s3.service.machine.S3ReplicateBucketMachine;
 import com.amazonaws.regions.Regions;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.Bucket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Named;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Named
 public class S3Service implements ProjectService {
     private final Logger log = LoggerFactory.getLogger(getClass());
 
-    private final AmazonS3 s3;
+    private final S3BucketIndex bucketIndex;
     private final ProjectFinder projectFinder;
+    private final ProjectCache projectCache;
+    private final ProjectItemWriter itemWriter;
     private final S3ReplicateBucketMachine replicateBucketMachine;
+    private final ItemValidator itemValidator;
 
     S3Service(
-            AmazonS3 s3,
+            S3BucketIndex bucketIndex,
             ProjectFinder projectFinder,
-            S3ReplicateBucketMachine replicateBucketMachine) {
-        this.s3 = s3;
+            ProjectCache projectCache,
+            ProjectItemWriter itemWriter,
+            S3ReplicateBucketMachine replicateBucketMachine,
+            ItemValidator itemValidator) {
+        this.bucketIndex = bucketIndex;
         this.projectFinder = projectFinder;
+        this.projectCache = projectCache;
+        this.itemWriter = itemWriter;
         this.replicateBucketMachine = replicateBucketMachine;
+        this.itemValidator = itemValidator;
     }
 
     public AwsBucket[] getAwsBuckets() {
-        return s3.listBuckets()
-                .stream().parallel()
-                .map(Bucket::getName)
-                .map(bucket -> ImmutableAwsBucket.builder()
-                        .id(bucket)
-                        .name(bucket)
-                        .region(getRegion(bucket))
-                        .build())
-                .toArray(AwsBucket[]::new);
+        final var buckets = new ArrayList<AwsBucket>();
+        forEachAwsBucket(buckets::add);
+        return buckets.toArray(AwsBucket[]::new);
+    }
+
+    public void forEachAwsBucket(Consumer<AwsBucket> consumer) {
+        bucketIndex.getBucketRegions().forEach((bucket, region) -> consumer.accept(ImmutableAwsBucket.builder()
+                .id(bucket)
+                .name(bucket)
+                .region(region)
+                .build()));
     }
 
-    private String getRegion(String bucket) {
-        return com.amazonaws.services.s3.model.Region
-                .fromValue(s3.getBucketLocation(bucket))
-                .toAWSRegion()
-                .getName();
+    /**
+     * @return whether the bucket is in the region, locating it again if the indexed region differs.
+     */
+    private boolean checkRegion(String bucket, Region region) {
+        return bucketIndex.getRegion(bucket, false).equals(region.getName())
+                || bucketIndex.getRegion(bucket, true).equals(region.getName());
     }
 
     public AwsBucketItem[] getAwsBucketItems(Project project) {
+        return toItems(project);
+    }
+
+    /**
+     * Maps the items of the project to their buckets, by name.
+     */
+    static AwsBucketItem[] toItems(Project project) {
         return project.getS3Project().getItems()
                 .stream()
                 .map(item -> ImmutableAwsBucketItem.builder()
@@ -97,6 +123,7 @@ public class S3Service implements ProjectService {
 
         log.debug("Save S3 project [{}]", project.getName());
         projectFinder.save(project, request.getSourceCredential());
+        projectCache.evict(project.getId());
     }
 
     @Override
@@ -116,33 +143,67 @@ public class S3Service implements ProjectService {
             }
         }
 
-        try {
-            if (!getRegion(item.getSource()).equals(project.getSourceRegion().getName())) {
-                throw new PortalException("源桶所属区域不是 " + project.getSourceRegion());
+        checkItem(project, item);
+        items.add(item);
+        itemWriter.append(project, Section.S3, List.of(item));
+        replicateBucketMachine.replicate(project, item);
+    }
+
+    /**
+     * Adds the items that are valid in a single write, then replicates them.
+     */
+    public ItemOutcome[] addItems(Project project, S3Item[] requested) {
+        log.info("Add {} S3 items to project {}", requested.length, project.getName());
+
+        final var items = project.getS3Project().getItems();
+        final var batch = itemValidator.validate(items, List.of(requested), S3Item::getId,
+                item -> checkItem(project, item));
+        final var accepted = batch.getAccepted();
+        items.addAll(accepted);
+        itemWriter.append(project, Section.S3, accepted);
+        for (var item : accepted) {
+            try {
+                replicateBucketMachine.replicate(project, item);
+            } catch (RuntimeException e) {
+                log.warn("Unable to replicate item " + item.getId(), e);
+                batch.fail(item, "已添加，但无法开始复制：" + e.getLocalizedMessage());
             }
+        }
+        return batch.toOutcomes(S3Item::getId);
+    }
+
+    private void checkItem(Project project, S3Item item) {
+        final boolean sourceInRegion;
+        try {
+            sourceInRegion = checkRegion(item.getSource(), project.getSourceRegion());
         } catch (Exception e) {
             throw new PortalException(String.format("在 %s 找不到源桶 %s",
                     project.getSourceRegion(), item.getSource()));
         }
+        if (!sourceInRegion) {
+            throw new PortalException("源桶所属区域不是 " + project.getSourceRegion());
+        }
 
+        final boolean targetInRegion;
         try {
-            if (!getRegion(item.getTarget()).equals(project.getTargetRegion().getName())) {
-                throw new PortalException("目的桶所属区域不是 " + project.getTargetRegion());
-            }
+            targetInRegion = checkRegion(item.getTarget(), project.getTargetRegion());
         } catch (Exception e) {
             throw new PortalException(String.format("在 %s 找不到目的桶 %s",
                     project.getTargetRegion(), item.getTarget()));
         }
-
-        items.add(item);
-        replicateBucketMachine.replicate(project, item); // will save project
+        if (!targetInRegion) {
+            throw new PortalException("目的桶所属区域不是 " + project.getTargetRegion());
+        }
     }
 
     public void deleteItems(Project project, String[] keys) {
         log.info("Delete {} S3 items from project {}", keys.length, project.getName());
         final var keySet = Set.of(keys);
-        project.getS3Project().getItems().removeIf(config -> keySet.contains(config.getId()));
-        projectFinder.save(project);
+        final var items = project.getS3Project().getItems();
+        itemWriter.remove(project, Section.S3, items.stream()
+                .filter(config -> keySet.contains(config.getId()))
+                .collect(Collectors.toList()));
+        items.removeIf(config -> keySet.contains(config.getId()));
     }
 
     public void replicateItem(Project project, S3Item item) {
@@ -4,32 +4,49 @@
 package aws.proserve.bcs.dr.server.s3.service.machine;
 
 import aws.proserve.bcs.dr.machine.AbstractStateMachine;
+import aws.proserve.bcs.dr.project.Component;
 import aws.proserve.bcs.dr.project.Project;
 import aws.proserve.bcs.dr.s3.S3Item;
 import aws.proserve.bcs.dr.s3.S3Item.State;
+import aws.proserve.bcs.dr.server.machine.service.ExecutionTracker;
+import aws.proserve.bcs.dr.server.machine.service.TrackedMachine;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import aws.proserve.bcs.dr.server.project.service.ProjectWriteBehind;
 import aws.proserve.bcs.dr.server.s3.dto.ImmutableBucket;
 import aws.proserve.bcs.dr.server.s3.dto.ImmutableReplicateS3Request;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.inject.Named;
 import java.util.Date;
-import java.util.concurrent.ExecutorService;
 
 @Named
-public class S3ReplicateBucketMachine extends AbstractStateMachine {
-    private final DynamoDBMapper dbMapper;
-    private final ExecutorService executor;
+public class S3ReplicateBucketMachine extends AbstractStateMachine implements TrackedMachine<S3Item> {
+    private final ProjectWriteBehind writeBehind;
+    private final ProjectItemWriter itemWriter;
+    private final ExecutionTracker tracker;
 
     S3ReplicateBucketMachine(
             AWSStepFunctions machine,
             ObjectMapper mapper,
-            DynamoDBMapper dbMapper,
-            ExecutorService executor) {
+            ProjectWriteBehind writeBehind,
+            ProjectItemWriter itemWriter,
+            ExecutionTracker tracker) {
         super(machine, mapper);
-        this.dbMapper = dbMapper;
-        this.executor = executor;
+        this.writeBehind = writeBehind;
+        this.itemWriter = itemWriter;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Component getType() {
+        return Component.S3;
+    }
+
+    @Override
+    public boolean isRunning(S3Item item) {
+        return State.REPLICATING.name().equals(item.getState());
     }
 
     public void replicate(Project project, S3Item item) {
@@ -39,29 +56,64 @@ public class S3ReplicateBucketMachine extends AbstractStateMachine {
 
         item.setState(State.REPLICATING.name());
         item.setStartTime(new Date());
-        dbMapper.save(project);
-        executor.submit(() -> {
-            try {
-                execute(ImmutableReplicateS3Request.builder()
-                        .projectId(project.getId())
-                        .source(ImmutableBucket.builder()
-                                .bucket(item.getSource())
-                                .region(project.getSourceRegion().getName())
-                                .build())
-                        .target(ImmutableBucket.builder()
-                                .bucket(item.getTarget())
-                                .region(project.getTargetRegion().getName())
-                                .build())
-                        .build());
-                item.setState(State.REPLICATED.name());
-                item.setEndTime(new Date());
-                dbMapper.save(project);
-            } catch (Exception e) {
-                log.warn("S3 replication execution failed.", e);
-                item.setState(State.FAILED.name());
-                item.setEndTime(new Date());
-                dbMapper.save(project);
-            }
-        });
+        writeBehind.update(project, Section.S3, item, ProjectItemWriter.STATE, ProjectItemWriter.START_TIME);
+
+        final String executionArn;
+        try {
+            executionArn = executeAsync(ImmutableReplicateS3Request.builder()
+                    .projectId(project.getId())
+                    .source(ImmutableBucket.builder()
+                            .bucket(item.getSource())
+                            .region(project.getSourceRegion().getName())
+                            .build())
+                    .target(ImmutableBucket.builder()
+                            .bucket(item.getTarget())
+                            .region(project.getTargetRegion().getName())
+                            .build())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Unable to start S3 replication execution.", e);
+            end(project, item, State.FAILED);
+            return;
+        }
+
+        var storedArn = executionArn;
+        try {
+            itemWriter.updateExecutionArn(project, Section.S3, item, executionArn);
+        } catch (RuntimeException e) {
+            log.warn("Unable to store S3 replication execution, it is only tracked until a restart.", e);
+            storedArn = null;
+        }
+        track(project, item, executionArn, storedArn);
+    }
+
+    @Override
+    public void resume(Project project, S3Item item, String executionArn) {
+        track(project, item, executionArn, executionArn);
+    }
+
+    /**
+     * @param storedArn the execution the stored item must still be running for the end to be written, or
+     *                  <code>null</code> if it could not be stored.
+     */
+    private void track(Project project, S3Item item, String executionArn, String storedArn) {
+        tracker.track(executionArn,
+                result -> end(project, item, State.REPLICATED, storedArn),
+                result -> end(project, item, State.FAILED, storedArn));
+    }
+
+    private void end(Project project, S3Item item, State state) {
+        end(project, item, state, null);
+    }
+
+    private void end(Project project, S3Item item, State state, String storedArn) {
+        item.setState(state.name());
+        item.setEndTime(new Date());
+        if (storedArn == null) {
+            writeBehind.update(project, Section.S3, item, ProjectItemWriter.STATE, ProjectItemWriter.END_TIME);
+        } else if (!itemWriter.updateIfExecution(project, Section.S3, item, storedArn,
+                ProjectItemWriter.STATE, ProjectItemWriter.END_TIME)) {
+            log.info("S3 replication {} ended after the bucket was replicated again", storedArn);
+        }
     }
 }
@@ -7,6 +7,7 @@ import aws.proserve.bcs.dr.aws.AwsVpc;
 import aws.proserve.bcs.dr.dto.Response;
 import aws.proserve.bcs.dr.dto.request.DeleteItemsRequest;
 import aws.proserve.bcs.dr.server.project.service.ProjectService;
+import aws.proserve.bcs.dr.server.project.service.ProjectSnapshots;
 import aws.proserve.bcs.dr.server.vpc.dto.ManageVpcItemRequest;
 import aws.proserve.bcs.dr.server.vpc.dto.ManageVpcItemsRequest;
 import aws.proserve.bcs.dr.server.vpc.service.VpcService;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/vpc/projects")
@@ -27,12 +29,15 @@ class VpcProjectController {
 
     private final VpcService service;
     private final ProjectService projectService;
+    private final ProjectSnapshots snapshots;
 
     VpcProjectController(
             VpcService service,
-            ProjectService projectService) {
+            ProjectService projectService,
+            ProjectSnapshots snapshots) {
         this.service = service;
         this.projectService = projectService;
+        this.snapshots = snapshots;
     }
 
     @GetMapping("/{projectId}/awsVpcs")
@@ -41,8 +46,11 @@ class VpcProjectController {
     }
 
     @GetMapping("/{projectId}/awsVpcItems")
-    ResponseEntity<AwsVpcItem[]> getAwsVpcItems(@PathVariable String projectId) {
-        return ResponseEntity.ok(service.getAwsVpcItems(projectService.findOne(projectId)));
+    ResponseEntity<AwsVpcItem[]> getAwsVpcItems(
+            @PathVariable String projectId,
+            WebRequest request) {
+        return snapshots.get(request, "awsVpcItems", projectId,
+                () -> service.getAwsVpcItems(projectService.findOne(projectId)));
     }
 
     @PutMapping("/{projectId}/items")
@@ -0,0 +1,190 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: MIT-0
+
+package aws.proserve.bcs.dr.server.vpc.service;
+
+import aws.proserve.bcs.dr.dynamo.DynamoConstants;
+import aws.proserve.bcs.dr.project.Component;
+import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.project.ProjectFinder;
+import aws.proserve.bcs.dr.vpc.VpcItem;
+import aws.proserve.bcs.dr.vpc.VpcProject;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.document.DynamoDB;
+import com.amazonaws.services.dynamodbv2.document.TableWriteItems;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes the replication records of VPCs from {@link DynamoConstants#TABLE_VPC}.
+ * <p>
+ * Records of a deleted project are looked up with a single projected scan, as they only hold the source VPC ID
+ * nested in <code>source</code>, which no index can key on. Records of VPCs no longer in any project are swept in
+ * the background after a project is deleted, one page per run, so that no request pays for a full table scan.
+ */
+@Named
+public class VpcRecordCleaner {
+    private static final int BATCH_SIZE = 25;
+    private static final int MAX_RETRIES = 8;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final DynamoDB dynamoDB;
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final ProjectFinder projectFinder;
+    private final int sweepPageSize;
+
+    private volatile boolean sweepRequested;
+    private Map<String, AttributeValue> sweepFrom;
+    private Set<String> sweepVpcIds;
+
+    VpcRecordCleaner(
+            DynamoDB dynamoDB,
+            AmazonDynamoDB amazonDynamoDB,
+            ProjectFinder projectFinder,
+            @Value("${portal.vpc.records.sweep.pageSize:100}") int sweepPageSize) {
+        this.dynamoDB = dynamoDB;
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.projectFinder = projectFinder;
+        this.sweepPageSize = sweepPageSize;
+    }
+
+    public void deleteBySource(Collection<String> vpcIds) {
+        if (vpcIds.isEmpty()) {
+            return;
+        }
+
+        final var ids = scanBySource(new HashSet<>(vpcIds));
+        log.info("Delete {} records of {} VPCs", ids.size(), vpcIds.size());
+        delete(ids);
+    }
+
+    /**
+     * Starts a new sweep of orphan records at the next run.
+     */
+    public void requestSweep() {
+        sweepRequested = true;
+    }
+
+    @Scheduled(fixedDelayString = "${portal.vpc.records.sweep.delayMillis:30000}")
+    public synchronized void sweep() {
+        if (sweepFrom == null) {
+            if (!sweepRequested) {
+                return;
+            }
+
+            sweepRequested = false;
+            sweepVpcIds = findProjectVpcIds();
+        }
+
+        final var result = amazonDynamoDB.scan(projectedScan()
+                .withLimit(sweepPageSize)
+                .withExclusiveStartKey(sweepFrom));
+        sweepFrom = result.getLastEvaluatedKey() == null || result.getLastEvaluatedKey().isEmpty()
+                ? null : result.getLastEvaluatedKey();
+
+        final var orphans = new ArrayList<String[]>();
+        for (var item : result.getItems()) {
+            final var vpcId = sourceOf(item);
+            if (vpcId != null && !sweepVpcIds.contains(vpcId)) {
+                orphans.add(new String[]{item.get(DynamoConstants.KEY_ID).getS(), vpcId});
+            }
+        }
+
+        if (!orphans.isEmpty()) {
+            // a VPC may have been added to a project since the sweep started
+            sweepVpcIds = findProjectVpcIds();
+            delete(orphans.stream()
+                    .filter(orphan -> !sweepVpcIds.contains(orphan[1]))
+                    .map(orphan -> orphan[0])
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private Set<String> findProjectVpcIds() {
+        return projectFinder.findByType(Component.VPC).stream()
+                .map(Project::getVpcProject)
+                .map(VpcProject::getItems).flatMap(List::stream)
+                .map(VpcItem::getSource)
+                .collect(Collectors.toSet());
+    }
+
+    private List<String> scanBySource(Set<String> vpcIds) {
+        final var ids = new ArrayList<String>();
+        final var request = projectedScan();
+        Map<String, AttributeValue> lastKey;
+        do {
+            final var result = amazonDynamoDB.scan(request);
+            for (var item : result.getItems()) {
+                if (vpcIds.contains(sourceOf(item))) {
+                    ids.add(item.get(DynamoConstants.KEY_ID).getS());
+                }
+            }
+
+            lastKey = result.getLastEvaluatedKey();
+            request.setExclusiveStartKey(lastKey);
+        } while (lastKey != null && !lastKey.isEmpty());
+        return ids;
+    }
+
+    private ScanRequest projectedScan() {
+        return new ScanRequest(DynamoConstants.TABLE_VPC)
+                .withProjectionExpression("#id, #source.#vpcId")
+                .withExpressionAttributeNames(Map.of(
+                        "#id", DynamoConstants.KEY_ID,
+                        "#source", "source",
+                        "#vpcId", "vpcId"));
+    }
+
+    private static String sourceOf(Map<String, AttributeValue> item) {
+        final var source = item.get("source");
+        if (source == null || source.getM() == null) {
+            return null;
+        }
+
+        final var vpcId = source.getM().get("vpcId");
+        return vpcId == null ? null : vpcId.getS();
+    }
+
+    private void delete(List<String> ids) {
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            final var batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            var outcome = dynamoDB.batchWriteItem(new TableWriteItems(DynamoConstants.TABLE_VPC)
+                    .withHashOnlyKeysToDelete(DynamoConstants.KEY_ID, batch.toArray()));
+
+            for (int attempt = 1; !outcome.getUnprocessedItems().isEmpty(); attempt++) {
+                if (attempt > MAX_RETRIES) {
+                    log.warn("Give up deleting {} unprocessed VPC records", outcome.getUnprocessedItems()
+                            .values().stream().mapToInt(List::size).sum());
+                    break;
+                }
+
+                backoff(attempt);
+                outcome = dynamoDB.batchWriteItemUnprocessed(outcome.getUnprocessedItems());
+            }
+        }
+    }
+
+    private static void backoff(int attempt) {
+        final long cap = Math.min(10_000, 50L << attempt);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap / 2, cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
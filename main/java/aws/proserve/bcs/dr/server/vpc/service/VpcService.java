@@ -5,23 +5,23 @@ package aws.proserve.bcs.dr.server.vpc.service;
 
 import aws.proserve.bcs.dr.aws.AwsVpc;
 import aws.proserve.bcs.dr.aws.ImmutableAwsVpc;
-import aws.proserve.bcs.dr.dynamo.DynamoConstants;
 import aws.proserve.bcs.dr.exception.PortalException;
-import aws.proserve.bcs.dr.project.Component;
 import aws.proserve.bcs.dr.project.Project;
-import aws.proserve.bcs.dr.project.ProjectFinder;
 import aws.proserve.bcs.dr.project.ProjectService;
+import aws.proserve.bcs.dr.server.aws.client.AwsClientRegistry;
+import aws.proserve.bcs.dr.server.aws.service.AwsService;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
 import aws.proserve.bcs.dr.server.vpc.dto.CreateVpcProjectRequest;
 import aws.proserve.bcs.dr.server.vpc.service.machine.VpcReplicateVpcMachine;
 import aws.proserve.bcs.dr.vpc.AwsVpcItem;
 import aws.proserve.bcs.dr.vpc.ImmutableAwsVpcItem;
 import aws.proserve.bcs.dr.vpc.VpcItem;
-import aws.proserve.bcs.dr.vpc.VpcProject;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
-import com.amazonaws.services.dynamodbv2.document.DynamoDB;
 import com.amazonaws.services.ec2.AmazonEC2;
-import com.amazonaws.services.ec2.AmazonEC2ClientBuilder;
 import com.amazonaws.services.ec2.model.DescribeVpcsRequest;
+import com.amazonaws.services.ec2.model.DescribeVpcsResult;
+import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.lambda.AWSLambda;
 import com.amazonaws.services.lambda.model.InvokeRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -32,34 +32,53 @@ import javax.inject.Named;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Named
 public class VpcService implements ProjectService {
 
+    /**
+     * The maximum number of values of a filter of <code>DescribeVpcs</code>.
+     */
+    private static final int FILTER_VALUES = 200;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final ObjectMapper mapper;
     private final AWSLambda lambda;
-    private final DynamoDB dynamoDB;
+    private final AwsClientRegistry clients;
+    private final AwsService awsService;
+    private final VpcRecordCleaner recordCleaner;
+    private final ExecutorService cleanupExecutor;
     private final DynamoDBMapper dbMapper;
-    private final ProjectFinder projectFinder;
+    private final ProjectItemWriter itemWriter;
     private final VpcReplicateVpcMachine replicateVpcMachine;
 
     VpcService(
             ObjectMapper mapper,
             AWSLambda lambda,
-            DynamoDB dynamoDB,
-            DynamoDBMapper dbMapper, ProjectFinder projectFinder,
+            AwsClientRegistry clients,
+            AwsService awsService,
+            VpcRecordCleaner recordCleaner,
+            @Named("cleanupExecutor") ExecutorService cleanupExecutor,
+            DynamoDBMapper dbMapper,
+            ProjectItemWriter itemWriter,
             VpcReplicateVpcMachine replicateVpcMachine) {
         this.mapper = mapper;
         this.lambda = lambda;
-        this.dynamoDB = dynamoDB;
+        this.clients = clients;
+        this.awsService = awsService;
+        this.recordCleaner = recordCleaner;
+        this.cleanupExecutor = cleanupExecutor;
         this.dbMapper = dbMapper;
-        this.projectFinder = projectFinder;
+        this.itemWriter = itemWriter;
         this.replicateVpcMachine = replicateVpcMachine;
     }
 
@@ -68,36 +87,47 @@ public class VpcService implements ProjectService {
     }
 
     public AwsVpc[] getAwsVpcs(String region) {
-        final var ec2 = AmazonEC2ClientBuilder.standard()
-                .withRegion(region)
-                .build();
-
-        return AwsVpc.getVpcs(ec2).stream().map(AwsVpc::convert).toArray(AwsVpc[]::new);
+        return awsService.getVpcs(region);
     }
 
     public AwsVpcItem[] getAwsVpcItems(Project project) {
-        final var ec2 = AmazonEC2ClientBuilder.standard()
-                .withRegion(project.getSourceRegion().toAwsRegion())
-                .build();
+        final var items = project.getVpcProject().getItems();
+        final var vpcs = getAwsVpcMap(clients.ec2(project.getSourceRegion().getName()),
+                items.stream().map(VpcItem::getSource).distinct().collect(Collectors.toList()));
 
-        return project.getVpcProject().getItems()
-                .stream()
+        return items.stream()
                 .map(item -> ImmutableAwsVpcItem.builder()
                         .item(item)
-                        .source(getAwsVpc(ec2, item.getSource()))
+                        .source(vpcs.getOrDefault(item.getSource(), ImmutableAwsVpc.builder()
+                                .vpcId(item.getSource())
+                                .name("")
+                                .state("")
+                                .build()))
                         .sourceRegion(project.getSourceRegion().getName())
                         .targetRegion(project.getTargetRegion().getName())
                         .build())
                 .toArray(AwsVpcItem[]::new);
     }
 
-    private AwsVpc getAwsVpc(AmazonEC2 ec2, String vpcId) {
-        return ec2.describeVpcs(new DescribeVpcsRequest().withVpcIds(vpcId))
-                .getVpcs()
-                .stream()
-                .map(AwsVpc::convert)
-                .findFirst()
-                .orElse(ImmutableAwsVpc.builder().vpcId(vpcId).name("").state("").build());
+    /**
+     * Filters by VPC ID rather than listing the IDs, so that a missing VPC does not fail the whole request.
+     */
+    private Map<String, AwsVpc> getAwsVpcMap(AmazonEC2 ec2, List<String> vpcIds) {
+        final var vpcs = new HashMap<String, AwsVpc>();
+        for (int from = 0; from < vpcIds.size(); from += FILTER_VALUES) {
+            final var request = new DescribeVpcsRequest().withFilters(new Filter("vpc-id",
+                    vpcIds.subList(from, Math.min(from + FILTER_VALUES, vpcIds.size()))));
+            DescribeVpcsResult result;
+            do {
+                result = ec2.describeVpcs(request);
+                result.getVpcs().stream()
+                        .map(AwsVpc::convert)
+                        .forEach(vpc -> vpcs.put(vpc.getVpcId(), vpc));
+
+                request.setNextToken(result.getNextToken());
+            } while (result.getNextToken() != null);
+        }
+        return vpcs;
     }
 
     public void create(CreateVpcProjectRequest request) {
@@ -114,30 +144,24 @@ public class VpcService implements ProjectService {
 
     @Override
     public void delete(Project project) {
-        final var table = dynamoDB.getTable(DynamoConstants.TABLE_VPC);
-        for (var vpcItem : project.getVpcProject().getItems()) {
-            for (var item : table.scan("#source.vpcId = :vpcId",
-                    Map.of("#source", "source"),
-                    Map.of(":vpcId", vpcItem.getSource()))) {
-                table.deleteItem(DynamoConstants.KEY_ID, item.getString(DynamoConstants.KEY_ID));
-            }
-        }
-
-        final var vpcIds = projectFinder.findByType(Component.VPC).stream()
-                .map(Project::getVpcProject)
-                .map(VpcProject::getItems).flatMap(List::stream)
+        final var vpcIds = project.getVpcProject().getItems().stream()
                 .map(VpcItem::getSource)
                 .collect(Collectors.toSet());
+        dbMapper.delete(project);
 
-        for (var item : table.scan("attribute_exists(#source.vpcId)",
-                Map.of("#source", "source"), null)) {
-            final var vpcId = (String) item.getMap("source").get("vpcId");
-            if (!vpcIds.contains(vpcId)) {
-                table.deleteItem(DynamoConstants.KEY_ID, item.getString(DynamoConstants.KEY_ID));
-            }
+        try {
+            cleanupExecutor.execute(() -> {
+                try {
+                    recordCleaner.deleteBySource(vpcIds);
+                } catch (Exception e) {
+                    log.warn("Unable to delete records of VPC project " + project.getName(), e);
+                }
+                recordCleaner.requestSweep();
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Cleanup executor is busy, records of VPC project {} are left to the sweep", project.getName());
+            recordCleaner.requestSweep();
         }
-
-        dbMapper.delete(project);
     }
 
     public void addItems(Project project, VpcItem[] items) {
@@ -149,6 +173,7 @@ public class VpcService implements ProjectService {
 
         final var vpcItems = project.getVpcProject().getItems();
         final var vpcIds = vpcItems.stream().map(VpcItem::getId).collect(Collectors.toSet());
+        final var added = new ArrayList<VpcItem>();
 
         for (var i : items) {
             if (vpcIds.contains(i.getSource())) {
@@ -156,18 +181,22 @@ public class VpcService implements ProjectService {
                 continue;
             }
 
-            replicateVpcMachine.replicate(project, i);
             vpcItems.add(i);
+            added.add(i);
         }
 
-        dbMapper.save(project);
+        itemWriter.append(project, Section.VPC, added);
+        added.forEach(i -> replicateVpcMachine.replicate(project, i));
     }
 
     public void deleteItems(Project project, String[] vpcIds) {
         log.info("Delete {} vpc items from project {}", vpcIds.length, project.getName());
         final var vpcIdSet = Set.of(vpcIds);
-        project.getVpcProject().getItems().removeIf(config -> vpcIdSet.contains(config.getSource()));
-        dbMapper.save(project);
+        final var vpcItems = project.getVpcProject().getItems();
+        itemWriter.remove(project, Section.VPC, vpcItems.stream()
+                .filter(config -> vpcIdSet.contains(config.getSource()))
+                .collect(Collectors.toList()));
+        vpcItems.removeIf(config -> vpcIdSet.contains(config.getSource()));
 
         for (var vpcId : vpcIds) {
             lambda.invoke(new InvokeRequest()
@@ -4,63 +4,127 @@
 package aws.proserve.bcs.dr.server.vpc.service.machine;
 
 import aws.proserve.bcs.dr.machine.AbstractStateMachine;
+import aws.proserve.bcs.dr.project.Component;
 import aws.proserve.bcs.dr.project.Project;
+import aws.proserve.bcs.dr.server.machine.service.ExecutionTracker;
+import aws.proserve.bcs.dr.server.machine.service.TrackedMachine;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter;
+import aws.proserve.bcs.dr.server.project.service.ProjectItemWriter.Section;
+import aws.proserve.bcs.dr.server.project.service.ProjectWriteBehind;
 import aws.proserve.bcs.dr.server.vpc.dto.ImmutableReplicateVpcRequest;
 import aws.proserve.bcs.dr.server.vpc.dto.ImmutableVpcInfo;
 import aws.proserve.bcs.dr.vpc.VpcItem;
 import aws.proserve.bcs.dr.vpc.VpcItem.State;
-import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.stepfunctions.AWSStepFunctions;
+import com.amazonaws.services.stepfunctions.model.DescribeExecutionResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.inject.Named;
 import java.util.Date;
-import java.util.concurrent.ExecutorService;
 
 @Named
-public class VpcReplicateVpcMachine extends AbstractStateMachine {
-    private final DynamoDBMapper dbMapper;
-    private final ExecutorService executor;
+public class VpcReplicateVpcMachine extends AbstractStateMachine implements TrackedMachine<VpcItem> {
+    private final ProjectWriteBehind writeBehind;
+    private final ProjectItemWriter itemWriter;
+    private final ExecutionTracker tracker;
 
     VpcReplicateVpcMachine(
             AWSStepFunctions machine,
             ObjectMapper mapper,
-            DynamoDBMapper dbMapper,
-            ExecutorService executor) {
+            ProjectWriteBehind writeBehind,
+            ProjectItemWriter itemWriter,
+            ExecutionTracker tracker) {
         super(machine, mapper);
-        this.dbMapper = dbMapper;
-        this.executor = executor;
+        this.writeBehind = writeBehind;
+        this.itemWriter = itemWriter;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Component getType() {
+        return Component.VPC;
+    }
+
+    @Override
+    public boolean isRunning(VpcItem item) {
+        return State.REPLICATING.name().equals(item.getState());
     }
 
     public void replicate(Project project, VpcItem item) {
         log.info("Schedule VPC replication for {}", item.getSource());
         item.setState(State.REPLICATING.name());
         item.setStartTime(new Date());
-        dbMapper.save(project);
-        executor.submit(() -> {
-            try {
-                final String output = execute(ImmutableReplicateVpcRequest.builder()
-                        .cidr(item.getCidr())
-                        .continuous(item.isContinuous())
-                        .source(ImmutableVpcInfo.builder()
-                                .vpcId(item.getSource())
-                                .region(project.getSourceRegion().getName())
-                                .build())
-                        .target(ImmutableVpcInfo.builder()
-                                .region(project.getTargetRegion().getName())
-                                .build())
-                        .build());
-                final String result = mapper.readValue(output, String.class);
-                item.setTarget(result);
-                item.setState(State.REPLICATED.name());
-                item.setEndTime(new Date());
-                dbMapper.save(project);
-            } catch (Exception e) {
-                log.warn("VPC replication execution failed.", e);
-                item.setState(State.FAILED.name());
-                item.setEndTime(new Date());
-                dbMapper.save(project);
-            }
-        });
+        writeBehind.update(project, Section.VPC, item, ProjectItemWriter.STATE, ProjectItemWriter.START_TIME);
+
+        final String executionArn;
+        try {
+            executionArn = executeAsync(ImmutableReplicateVpcRequest.builder()
+                    .cidr(item.getCidr())
+                    .continuous(item.isContinuous())
+                    .source(ImmutableVpcInfo.builder()
+                            .vpcId(item.getSource())
+                            .region(project.getSourceRegion().getName())
+                            .build())
+                    .target(ImmutableVpcInfo.builder()
+                            .region(project.getTargetRegion().getName())
+                            .build())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Unable to start VPC replication execution.", e);
+            end(project, item, State.FAILED);
+            return;
+        }
+
+        var storedArn = executionArn;
+        try {
+            itemWriter.updateExecutionArn(project, Section.VPC, item, executionArn);
+        } catch (RuntimeException e) {
+            log.warn("Unable to store VPC replication execution, it is only tracked until a restart.", e);
+            storedArn = null;
+        }
+        track(project, item, executionArn, storedArn);
+    }
+
+    @Override
+    public void resume(Project project, VpcItem item, String executionArn) {
+        track(project, item, executionArn, executionArn);
+    }
+
+    /**
+     * @param storedArn the execution the stored item must still be running for the end to be written, or
+     *                  <code>null</code> if it could not be stored.
+     */
+    private void track(Project project, VpcItem item, String executionArn, String storedArn) {
+        tracker.track(executionArn,
+                result -> succeed(project, item, result, storedArn),
+                result -> end(project, item, State.FAILED, storedArn));
+    }
+
+    private void succeed(Project project, VpcItem item, DescribeExecutionResult result, String storedArn) {
+        try {
+            item.setTarget(mapper.readValue(result.getOutput(), String.class));
+        } catch (Exception e) {
+            log.warn("Unable to parse VPC replication output.", e);
+            end(project, item, State.FAILED, storedArn);
+            return;
+        }
+
+        end(project, item, State.REPLICATED, storedArn);
+    }
+
+    private void end(Project project, VpcItem item, State state) {
+        end(project, item, state, null);
+    }
+
+    private void end(Project project, VpcItem item, State state, String storedArn) {
+        item.setState(state.name());
+        item.setEndTime(new Date());
+        if (storedArn == null) {
+            writeBehind.update(project, Section.VPC, item,
+                    ProjectItemWriter.STATE, ProjectItemWriter.END_TIME, ProjectItemWriter.TARGET);
+        } else if (!itemWriter.updateIfExecution(project, Section.VPC, item, storedArn,
+                ProjectItemWriter.STATE, ProjectItemWriter.END_TIME, ProjectItemWriter.TARGET)) {
+            log.info("VPC replication {} ended after the VPC was replicated again", storedArn);
+        }
     }
 }